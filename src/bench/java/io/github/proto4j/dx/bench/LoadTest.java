@@ -0,0 +1,273 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Proto4j
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.proto4j.dx.bench; //@date 18.10.2026
+
+import io.github.proto4j.dx.DexFactory;
+import io.github.proto4j.dx.file.DexOutputStream;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Drives the <code>DexFactory</code> with a synthetic corpus on a growing
+ * number of threads. Every thread repeatedly converts a job of classes with
+ * its own <code>DexOutputStream</code> until the measurement time is over.
+ * For each thread count, the throughput, the p50/p99 job latency, the
+ * allocation rate and the time spent in garbage collection are reported.
+ * <pre>
+ * LoadTest [--threads=1,2,4,8] [--duration=10] [--warmup=5] [--job-size=50]
+ *          [--classes=2000] [--methods=20] [--constants=50] [--class-size=4096]
+ * </pre>
+ * Durations are given in seconds.
+ */
+public final class LoadTest {
+
+    private LoadTest() {}
+
+    public static void main(String[] args) throws InterruptedException {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int split = arg.indexOf('=');
+            if (!arg.startsWith("--") || split == -1) {
+                System.err.println("Illegal argument: " + arg);
+                System.exit(2);
+            }
+            options.put(arg.substring(2, split), arg.substring(split + 1));
+        }
+
+        int[] threadCounts = Arrays.stream(options.getOrDefault("threads", defaultThreads()).split(","))
+                .mapToInt(value -> Integer.parseInt(value.trim()))
+                .toArray();
+        long duration = Long.parseLong(options.getOrDefault("duration", "10")) * 1_000_000_000L;
+        long warmup   = Long.parseLong(options.getOrDefault("warmup", "5")) * 1_000_000_000L;
+        int  jobSize  = Integer.parseInt(options.getOrDefault("job-size", "50"));
+
+        SyntheticClassGenerator generator = SyntheticClassGenerator.forClassSize(
+                Integer.parseInt(options.getOrDefault("methods", "20")),
+                Integer.parseInt(options.getOrDefault("constants", "50")),
+                Integer.parseInt(options.getOrDefault("class-size", "4096")));
+        List<Job> jobs = split(generator.generateCorpus("io/github/proto4j/load",
+                Integer.parseInt(options.getOrDefault("classes", "2000"))), jobSize);
+
+        System.out.printf("corpus: %d jobs of %d classes (%s)%n", jobs.size(), jobSize, generator);
+        run(jobs, Arrays.stream(threadCounts).max().orElse(1), warmup);
+
+        System.out.printf("%7s %10s %12s %9s %9s %12s %10s %8s%n",
+                "threads", "jobs/s", "classes/s", "p50 ms", "p99 ms", "alloc MB/s", "KB/class", "gc ms");
+        for (int threads : threadCounts) {
+            Result result = run(jobs, threads, duration);
+            System.out.printf("%7d %10.1f %12.0f %9.2f %9.2f %12.1f %10.1f %8d%n",
+                    threads,
+                    result.jobs / result.seconds,
+                    result.classes / result.seconds,
+                    result.percentile(0.50) / 1e6,
+                    result.percentile(0.99) / 1e6,
+                    result.allocatedBytes / result.seconds / (1 << 20),
+                    result.allocatedBytes / 1024.0 / Math.max(result.classes, 1),
+                    result.gcMillis);
+        }
+    }
+
+    private static Result run(List<Job> jobs, int threads, long duration) throws InterruptedException {
+        com.sun.management.ThreadMXBean threadBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        DexFactory     factory  = DexFactory.getDefault();
+        AtomicInteger  nextJob  = new AtomicInteger();
+        CountDownLatch start    = new CountDownLatch(1);
+        Worker[]       workers  = new Worker[threads];
+        long           gcBefore = gcMillis();
+
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Worker(factory, jobs, nextJob, start, threadBean);
+            workers[i].start();
+        }
+
+        long begin = System.nanoTime();
+        for (Worker worker : workers) {
+            worker.deadline = begin + duration;
+        }
+        start.countDown();
+
+        Result result = new Result();
+        List<long[]> latencies = new ArrayList<>();
+        for (Worker worker : workers) {
+            worker.join();
+            if (worker.failure != null) {
+                throw worker.failure;
+            }
+            result.jobs           += worker.count;
+            result.classes        += worker.classes;
+            result.allocatedBytes += worker.allocatedBytes;
+            latencies.add(Arrays.copyOf(worker.latencies, worker.count));
+        }
+        result.seconds  = (System.nanoTime() - begin) / 1e9;
+        result.gcMillis = gcMillis() - gcBefore;
+        result.latencies = latencies.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        return result;
+    }
+
+    private static List<Job> split(Map<String, byte[]> corpus, int jobSize) {
+        if (jobSize <= 0) {
+            throw new IllegalArgumentException("Illegal job size: " + jobSize);
+        }
+        List<Job>          jobs  = new ArrayList<>();
+        List<String>       names = new ArrayList<>();
+        List<byte[]>       bytes = new ArrayList<>();
+        for (Map.Entry<String, byte[]> entry : corpus.entrySet()) {
+            names.add(entry.getKey());
+            bytes.add(entry.getValue());
+            if (names.size() == jobSize) {
+                jobs.add(new Job(names, bytes));
+                names = new ArrayList<>();
+                bytes = new ArrayList<>();
+            }
+        }
+        if (!names.isEmpty()) {
+            jobs.add(new Job(names, bytes));
+        }
+        return jobs;
+    }
+
+    private static long gcMillis() {
+        long total = 0;
+        for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(bean.getCollectionTime(), 0);
+        }
+        return total;
+    }
+
+    private static String defaultThreads() {
+        int cores = Runtime.getRuntime().availableProcessors();
+        StringBuilder threads = new StringBuilder("1");
+        for (int i = 2; i <= cores; i <<= 1) {
+            threads.append(',').append(i);
+        }
+        return threads.toString();
+    }
+
+    private static final class Job {
+        final String[] names;
+        final byte[][] bytes;
+
+        Job(List<String> names, List<byte[]> bytes) {
+            this.names = names.toArray(new String[0]);
+            this.bytes = bytes.toArray(new byte[0][]);
+        }
+    }
+
+    private static final class Worker extends Thread {
+        private final DexFactory                      factory;
+        private final List<Job>                       jobs;
+        private final AtomicInteger                   nextJob;
+        private final CountDownLatch                  start;
+        private final com.sun.management.ThreadMXBean threadBean;
+
+        volatile long deadline;
+
+        long[] latencies = new long[1024];
+        int    count;
+        long   classes;
+        long   allocatedBytes;
+        RuntimeException failure;
+
+        Worker(DexFactory factory, List<Job> jobs, AtomicInteger nextJob, CountDownLatch start,
+               com.sun.management.ThreadMXBean threadBean) {
+            super("load-worker");
+            this.factory    = factory;
+            this.jobs       = jobs;
+            this.nextJob    = nextJob;
+            this.start      = start;
+            this.threadBean = threadBean;
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            try {
+                start.await();
+                long allocated = threadBean.getThreadAllocatedBytes(getId());
+                while (System.nanoTime() < deadline) {
+                    Job  job   = jobs.get(Math.floorMod(nextJob.getAndIncrement(), jobs.size()));
+                    long begin = System.nanoTime();
+                    convert(job);
+                    record(System.nanoTime() - begin);
+                    classes += job.names.length;
+                }
+                allocatedBytes = threadBean.getThreadAllocatedBytes(getId()) - allocated;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                failure = e;
+            }
+        }
+
+        private void convert(Job job) {
+            try (DexOutputStream dos = factory.newOutputStream()) {
+                for (int i = 0; i < job.names.length; i++) {
+                    dos.addClass(job.names[i], job.bytes[i]);
+                }
+                if (dos.toDexBytes().length == 0) {
+                    throw new IllegalStateException("Empty dex-file");
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void record(long latency) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count << 1);
+            }
+            latencies[count++] = latency;
+        }
+    }
+
+    private static final class Result {
+        long   jobs;
+        long   classes;
+        long   allocatedBytes;
+        long   gcMillis;
+        double seconds;
+        long[] latencies;
+
+        double percentile(double p) {
+            if (latencies.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(p * latencies.length) - 1;
+            return latencies[Math.max(0, Math.min(index, latencies.length - 1))];
+        }
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Proto4j
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.proto4j.dx.bench; //@date 18.10.2026
+
+import io.github.proto4j.dx.ClassProfile;
+import io.github.proto4j.dx.DexFactory;
+import io.github.proto4j.dx.DexShard;
+import io.github.proto4j.dx.ShardingPolicy;
+import io.github.proto4j.dx.file.DexSectionReader;
+import io.github.proto4j.dx.file.DexVisitor;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Measures how many 4 KiB pages the class definitions, class data and code
+ * items of the hot classes of a startup profile occupy, once with all
+ * classes in a single dex-file and once with the profile-guided layout.
+ * <pre>
+ * PageFootprintBenchmark &lt;input.jar&gt; [profile.txt]
+ * </pre>
+ * Without a profile, every eighth class of the input is treated as hot.
+ */
+public final class PageFootprintBenchmark {
+
+    private static final int PAGE_SIZE = 4096;
+
+    private PageFootprintBenchmark() {}
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("Usage: PageFootprintBenchmark <input.jar> [profile.txt]");
+            System.exit(2);
+        }
+
+        Map<String, byte[]> inputs  = readClasses(Paths.get(args[0]));
+        ClassProfile        profile = args.length == 2 ? ClassProfile.read(Paths.get(args[1])) : sampleProfile(inputs);
+
+        Set<String> hot = new HashSet<>();
+        for (String name : profile.getHotClasses()) {
+            if (inputs.containsKey(name)) {
+                hot.add("L" + name.substring(0, name.length() - ".class".length()) + ";");
+            }
+        }
+
+        DexFactory     factory = DexFactory.getDefault();
+        List<DexShard> before  = factory.compileAll(inputs, ShardingPolicy.single());
+        List<DexShard> after   = factory.compileAll(inputs, profile);
+
+        System.out.printf("%d classes, %d hot%n", inputs.size(), hot.size());
+        report("single dex", before.get(0).toByteArray(), hot);
+        report("profiled", after.get(0).toByteArray(), hot);
+    }
+
+    /**
+     * Returns the number of pages touched by the given classes.
+     *
+     * @param data the raw dex-file
+     * @param descriptors the type descriptors of the classes to measure
+     * @return the page footprint
+     * @throws IOException if the dex-file is malformed
+     */
+    public static int pageFootprint(byte[] data, Set<String> descriptors) throws IOException {
+        DexSectionReader reader    = new DexSectionReader(data);
+        int              classDefs = reader.getTableOfContents().classDefs.off;
+        BitSet           pages     = new BitSet();
+
+        reader.accept(new DexVisitor() {
+            @Override
+            public boolean visitClass(DexSectionReader.ClassInfo classInfo) {
+                if (!descriptors.contains(classInfo.getDescriptor())) {
+                    return false;
+                }
+                touch(pages, classDefs + classInfo.getIndex() * 32, 32);
+                if (classInfo.getClassDataOffset() != 0) {
+                    touch(pages, classInfo.getClassDataOffset(), 1);
+                }
+                return true;
+            }
+
+            @Override
+            public void visitCode(DexSectionReader.CodeInfo codeInfo) {
+                // header, instructions and try items; handlers are not included
+                int size = 16 + codeInfo.getInstructionsSize() * 2 + codeInfo.getTriesSize() * 8;
+                touch(pages, codeInfo.getOffset(), size);
+            }
+        });
+        return pages.cardinality();
+    }
+
+    private static void report(String name, byte[] data, Set<String> hot) throws IOException {
+        int total = (data.length + PAGE_SIZE - 1) / PAGE_SIZE;
+        System.out.printf("%-10s hot classes touch %5d of %5d pages (%d bytes)%n",
+                name, pageFootprint(data, hot), total, data.length);
+    }
+
+    private static void touch(BitSet pages, int offset, int length) {
+        pages.set(offset / PAGE_SIZE, (offset + length - 1) / PAGE_SIZE + 1);
+    }
+
+    private static ClassProfile sampleProfile(Map<String, byte[]> inputs) {
+        List<String> classes = new ArrayList<>();
+        int          i       = 0;
+        for (String name : inputs.keySet()) {
+            if (i++ % 8 == 0) {
+                classes.add(name);
+            }
+        }
+        return ClassProfile.of(classes);
+    }
+
+    private static Map<String, byte[]> readClasses(Path jar) throws IOException {
+        Map<String, byte[]> classes = new LinkedHashMap<>();
+        try (ZipInputStream zis = new ZipInputStream(Files.newInputStream(jar))) {
+            ZipEntry entry;
+            while ((entry = zis.getNextEntry()) != null) {
+                if (!entry.isDirectory() && entry.getName().endsWith(".class")
+                        && !entry.getName().endsWith("module-info.class")) {
+                    classes.put(entry.getName(), zis.readAllBytes());
+                }
+            }
+        }
+        return classes;
+    }
+}
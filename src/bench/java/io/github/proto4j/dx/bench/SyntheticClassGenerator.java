@@ -0,0 +1,241 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Proto4j
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.proto4j.dx.bench; //@date 18.10.2026
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Generates valid class-files of a configurable shape without compiling
+ * any source code. Every generated class extends <code>java.lang.Object</code>
+ * and declares the given number of static methods <code>int mN(int)</code>.
+ * The string constants of a class are distributed over its methods and
+ * loaded with <code>ldc_w</code>, so that each of them ends up in the
+ * string table of the resulting dex-file. The size of a class is mainly
+ * controlled by the number of arithmetic instructions per method.
+ */
+public final class SyntheticClassGenerator {
+
+    /**
+     * The class-file version used (Java 6), which requires no stack maps.
+     */
+    private static final int MAJOR_VERSION = 50;
+
+    /**
+     * The size of a single <code>iload_0, bipush, iadd, istore_0</code>
+     * sequence.
+     */
+    private static final int INSTRUCTION_SIZE = 5;
+
+    /**
+     * The size of a single <code>ldc_w, pop</code> sequence.
+     */
+    private static final int CONSTANT_LOAD_SIZE = 4;
+
+    private static final int MAX_CODE_LENGTH = 65535;
+
+    /**
+     * Creates a generator whose classes have approximately the given size.
+     *
+     * @param methods the number of methods per class
+     * @param constants the number of string constants per class
+     * @param classSize the targeted class-file size in bytes
+     * @return the generator
+     */
+    public static SyntheticClassGenerator forClassSize(int methods, int constants, int classSize) {
+        SyntheticClassGenerator base = new SyntheticClassGenerator(methods, constants, 0);
+        int remaining = classSize - base.generate("a/B").length;
+        if (methods == 0 || remaining <= 0) {
+            return base;
+        }
+        return new SyntheticClassGenerator(methods, constants, remaining / (methods * INSTRUCTION_SIZE));
+    }
+
+    private final int methods;
+    private final int constants;
+    private final int instructions;
+
+    /**
+     * Creates a new generator.
+     *
+     * @param methods the number of methods per class
+     * @param constants the number of string constants per class
+     * @param instructions the number of arithmetic instructions per method
+     * @throws IllegalArgumentException if a value is negative or a method
+     *         would exceed the maximum code length
+     */
+    public SyntheticClassGenerator(int methods, int constants, int instructions) {
+        if (methods < 0 || constants < 0 || instructions < 0) {
+            throw new IllegalArgumentException("Illegal negative number");
+        }
+        int loads = methods == 0 ? 0 : (constants + methods - 1) / methods;
+        if ((long) loads * CONSTANT_LOAD_SIZE + (long) instructions * INSTRUCTION_SIZE + 2 > MAX_CODE_LENGTH) {
+            throw new IllegalArgumentException("Method code too large");
+        }
+        if (constants * 2 + methods + 8 > 0xFFFF) {
+            throw new IllegalArgumentException("Constant pool too large");
+        }
+        this.methods      = methods;
+        this.constants    = constants;
+        this.instructions = instructions;
+    }
+
+    /**
+     * Generates the given number of classes named <code>&lt;pkg&gt;/C&lt;i&gt;</code>.
+     *
+     * @param pkg the internal package name, e.g. <code>com/example</code>
+     * @param classCount the number of classes
+     * @return all classes mapped from their filename (with .class at the
+     *         end) to their bytecode
+     */
+    public Map<String, byte[]> generateCorpus(String pkg, int classCount) {
+        Map<String, byte[]> classes = new LinkedHashMap<>();
+        for (int i = 0; i < classCount; i++) {
+            String name = pkg + "/C" + i;
+            classes.put(name + ".class", generate(name));
+        }
+        return classes;
+    }
+
+    /**
+     * Generates a single class.
+     *
+     * @param internalName the internal class name, e.g. <code>com/example/Foo</code>
+     * @return the class-file bytes
+     */
+    public byte[] generate(String internalName) {
+        try {
+            return generate0(internalName);
+        } catch (IOException e) {
+            // not thrown by in-memory streams
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private byte[] generate0(String internalName) throws IOException {
+        ByteArrayOutputStream poolBytes = new ByteArrayOutputStream();
+        DataOutputStream      pool      = new DataOutputStream(poolBytes);
+
+        // #1..#4: this and super class, #5: "(I)I", #6: "Code"
+        utf8(pool, internalName);
+        classRef(pool, 1);
+        utf8(pool, "java/lang/Object");
+        classRef(pool, 3);
+        utf8(pool, "(I)I");
+        utf8(pool, "Code");
+        int next = 7;
+
+        int methodNames = next;
+        for (int i = 0; i < methods; i++) {
+            utf8(pool, "m" + i);
+        }
+        next += methods;
+
+        // every string constant takes two entries: Utf8 and String
+        int strings = next;
+        for (int i = 0; i < constants; i++) {
+            utf8(pool, internalName + "#s" + i);
+            pool.writeByte(8);
+            pool.writeShort(next + i * 2);
+        }
+        next += constants * 2;
+
+        ByteArrayOutputStream classBytes = new ByteArrayOutputStream();
+        DataOutputStream      out        = new DataOutputStream(classBytes);
+        out.writeInt(0xCAFEBABE);
+        out.writeShort(0);
+        out.writeShort(MAJOR_VERSION);
+        out.writeShort(next);
+        poolBytes.writeTo(out);
+
+        out.writeShort(0x0021); // ACC_PUBLIC | ACC_SUPER
+        out.writeShort(2);
+        out.writeShort(4);
+        out.writeShort(0); // interfaces
+        out.writeShort(0); // fields
+
+        out.writeShort(methods);
+        int loadsPerMethod = methods == 0 ? 0 : (constants + methods - 1) / methods;
+        for (int i = 0; i < methods; i++) {
+            int from = Math.min(i * loadsPerMethod, constants);
+            int to   = Math.min(from + loadsPerMethod, constants);
+
+            ByteArrayOutputStream code = new ByteArrayOutputStream();
+            for (int s = from; s < to; s++) {
+                int index = strings + s * 2 + 1;
+                code.write(0x13); // ldc_w
+                code.write(index >>> 8);
+                code.write(index);
+                code.write(0x57); // pop
+            }
+            for (int k = 0; k < instructions; k++) {
+                code.write(0x1A); // iload_0
+                code.write(0x10); // bipush
+                code.write(k & 0x7F);
+                code.write(0x60); // iadd
+                code.write(0x3B); // istore_0
+            }
+            code.write(0x1A); // iload_0
+            code.write(0xAC); // ireturn
+
+            out.writeShort(0x0009); // ACC_PUBLIC | ACC_STATIC
+            out.writeShort(methodNames + i);
+            out.writeShort(5);
+            out.writeShort(1); // attributes
+            out.writeShort(6);
+            out.writeInt(12 + code.size());
+            out.writeShort(2); // max_stack
+            out.writeShort(1); // max_locals
+            out.writeInt(code.size());
+            code.writeTo(out);
+            out.writeShort(0); // exception table
+            out.writeShort(0); // attributes
+        }
+        out.writeShort(0); // attributes
+        return classBytes.toByteArray();
+    }
+
+    private static void utf8(DataOutputStream pool, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        pool.writeByte(1);
+        pool.writeShort(bytes.length);
+        pool.write(bytes);
+    }
+
+    private static void classRef(DataOutputStream pool, int nameIndex) throws IOException {
+        pool.writeByte(7);
+        pool.writeShort(nameIndex);
+    }
+
+    @Override
+    public String toString() {
+        return "methods=" + methods + ", constants=" + constants + ", instructions=" + instructions;
+    }
+}
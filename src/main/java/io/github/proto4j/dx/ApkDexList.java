@@ -0,0 +1,277 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Proto4j
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.proto4j.dx; //@date 18.10.2026
+
+import com.android.dex.Dex;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * The list returned by {@link DexFactory#openApk(Path)}. All dex entries are
+ * located through the central directory of the APK and loaded concurrently
+ * in the background; {@link #get(int)} waits until the requested entry is
+ * available.
+ * <p>
+ * Entries that are STORED (which is what the Android build does for
+ * uncompressed dex-files) are mapped directly from the APK. dx offers no
+ * public way to create a <code>Dex</code> over a <code>ByteBuffer</code>,
+ * so its private constructor is used; if it is not accessible, or the
+ * archive needs zip64 extensions, the entries are read into arrays instead.
+ */
+final class ApkDexList extends AbstractList<Dex> {
+
+    /**
+     * Matches <code>classes.dex</code> and <code>classesN.dex</code>, where
+     * N is at least 2 and has no leading zeros, just like the runtime loads
+     * them. <code>classes1.dex</code> and <code>classes01.dex</code> are
+     * never loaded.
+     */
+    private static final Pattern DEX_ENTRY = Pattern.compile("classes([2-9]|[1-9]\\d{1,8})?\\.dex");
+
+    private static final int END_HEADER     = 0x06054b50;
+    private static final int CENTRAL_HEADER = 0x02014b50;
+    private static final int LOCAL_HEADER   = 0x04034b50;
+
+    /**
+     * The private <code>Dex(ByteBuffer)</code> constructor, or
+     * <code>null</code> if it is not accessible.
+     */
+    private static final Constructor<Dex> MAPPED_DEX = mappedDexConstructor();
+
+    private final List<CompletableFuture<Dex>> entries;
+
+    private ApkDexList(List<CompletableFuture<Dex>> entries) {
+        this.entries = entries;
+    }
+
+    static List<Dex> open(Path apk, Executor executor) throws IOException {
+        ZipFile zipFile = new ZipFile(apk.toFile());
+
+        List<ZipEntry> dexEntries = new ArrayList<>();
+        try {
+            zipFile.stream()
+                   .filter(entry -> DEX_ENTRY.matcher(entry.getName()).matches())
+                   .sorted(Comparator.comparingInt(ApkDexList::dexNumber))
+                   .forEach(dexEntries::add);
+        } catch (RuntimeException e) {
+            zipFile.close();
+            throw e;
+        }
+
+        Map<String, ByteBuffer> mapped;
+        try {
+            mapped = mapStoredEntries(apk);
+        } catch (IOException | RuntimeException e) {
+            zipFile.close();
+            throw e;
+        }
+
+        List<CompletableFuture<Dex>> entries = new ArrayList<>(dexEntries.size());
+        try {
+            for (ZipEntry entry : dexEntries) {
+                ByteBuffer data = mapped.get(entry.getName());
+                entries.add(CompletableFuture.supplyAsync(() -> load(zipFile, entry, data), executor));
+            }
+        } finally {
+            // The archive is released as soon as the last submitted entry
+            // has been read, even if the executor rejected the others
+            CompletableFuture.allOf(entries.toArray(new CompletableFuture<?>[0]))
+                             .whenComplete((result, error) -> {
+                                 try {
+                                     zipFile.close();
+                                 } catch (IOException e) {
+                                     // ignore, all entries have been read
+                                 }
+                             });
+        }
+        return new ApkDexList(entries);
+    }
+
+    private static Dex load(ZipFile zipFile, ZipEntry entry, ByteBuffer data) {
+        if (data != null) {
+            try {
+                return MAPPED_DEX.newInstance(data);
+            } catch (InvocationTargetException e) {
+                if (e.getCause() instanceof IOException) {
+                    throw new UncheckedIOException((IOException) e.getCause());
+                }
+                throw new UncheckedIOException(new IOException("Malformed entry: " + entry.getName(), e.getCause()));
+            } catch (ReflectiveOperationException e) {
+                // fall through and read the entry
+            }
+        }
+
+        try (InputStream inputStream = zipFile.getInputStream(entry)) {
+            long size = entry.getSize();
+            if (size < 0 || size > Integer.MAX_VALUE) {
+                return new Dex(inputStream.readAllBytes());
+            }
+
+            // The uncompressed size is known from the central directory, so
+            // the entry can be read (STORED) or inflated (DEFLATED) directly
+            // into its final array.
+            byte[] content = new byte[(int) size];
+            int    length  = inputStream.readNBytes(content, 0, content.length);
+            if (length != content.length) {
+                throw new IOException("Truncated entry: " + entry.getName());
+            }
+            return new Dex(content);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Maps the data of all STORED dex entries. The central directory is
+     * read from the end of the archive; archives with zip64 extensions or
+     * a damaged directory are left to <code>ZipFile</code>.
+     */
+    private static Map<String, ByteBuffer> mapStoredEntries(Path apk) throws IOException {
+        Map<String, ByteBuffer> mapped = new HashMap<>();
+        if (MAPPED_DEX == null) {
+            return mapped;
+        }
+
+        ByteBuffer file;
+        try (FileChannel channel = FileChannel.open(apk, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                return mapped;
+            }
+            // The mapping stays valid after the channel has been closed
+            file = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        file.order(ByteOrder.LITTLE_ENDIAN);
+
+        // The end record is followed by a comment of at most 64K
+        int min = Math.max(0, file.limit() - 22 - 0xFFFF);
+        int end = file.limit() - 22;
+        while (end >= min && file.getInt(end) != END_HEADER) {
+            end--;
+        }
+        if (end < min) {
+            return mapped;
+        }
+
+        int count  = file.getShort(end + 10) & 0xFFFF;
+        int offset = file.getInt(end + 16);
+        for (int i = 0; i < count; i++) {
+            if (offset < 0 || offset > end - 46 || file.getInt(offset) != CENTRAL_HEADER) {
+                // leave the damaged directory to ZipFile
+                return mapped;
+            }
+            int method        = file.getShort(offset + 10) & 0xFFFF;
+            int size          = file.getInt(offset + 20);
+            int nameLength    = file.getShort(offset + 28) & 0xFFFF;
+            int extraLength   = file.getShort(offset + 30) & 0xFFFF;
+            int commentLength = file.getShort(offset + 32) & 0xFFFF;
+            int localHeader   = file.getInt(offset + 42);
+            String name = entryName(file, offset + 46, nameLength);
+            offset += 46 + nameLength + extraLength + commentLength;
+
+            if (method != ZipEntry.STORED || size < 0 || localHeader < 0 || localHeader > end - 30
+                || file.getInt(localHeader) != LOCAL_HEADER || !DEX_ENTRY.matcher(name).matches()) {
+                continue;
+            }
+            int data = localHeader + 30 + (file.getShort(localHeader + 26) & 0xFFFF)
+                       + (file.getShort(localHeader + 28) & 0xFFFF);
+            if (data <= end - size) {
+                ByteBuffer slice = file.duplicate();
+                slice.position(data).limit(data + size);
+                mapped.put(name, slice.slice());
+            }
+        }
+        return mapped;
+    }
+
+    private static String entryName(ByteBuffer file, int offset, int length) {
+        byte[] name = new byte[length];
+        file.duplicate().position(offset).get(name);
+        return new String(name, StandardCharsets.UTF_8);
+    }
+
+    private static Constructor<Dex> mappedDexConstructor() {
+        try {
+            Constructor<Dex> constructor = Dex.class.getDeclaredConstructor(ByteBuffer.class);
+            constructor.setAccessible(true);
+            return constructor;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static int dexNumber(ZipEntry entry) {
+        Matcher matcher = DEX_ENTRY.matcher(entry.getName());
+        if (!matcher.matches() || matcher.group(1) == null) {
+            return 1;
+        }
+        return Integer.parseInt(matcher.group(1));
+    }
+
+    /**
+     * Returns the dex-file at the given position, waiting until it has been
+     * loaded.
+     *
+     * @throws UncheckedIOException if the entry could not be read
+     */
+    @Override
+    public Dex get(int index) {
+        try {
+            return entries.get(index).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException) {
+                throw (UncheckedIOException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public int size() {
+        return entries.size();
+    }
+}
@@ -32,6 +32,8 @@ import com.android.dx.dex.cf.CfTranslator;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Objects;
 
 /**
  * An abstract class used to parse raw .class files. Note that objects of this
@@ -109,6 +111,32 @@ public abstract class ClassParser implements DxVersion {
     public abstract DirectClassFile read(String filename, byte[] content)
             throws ParseException;
 
+    /**
+     * Parses the class-file data stored in the given range of the input
+     * array. The array must not be modified while the returned
+     * <code>DirectClassFile</code> is in use.
+     * <p>
+     * The default implementation copies the range and delegates to
+     * {@link #read(String, byte[])}.
+     *
+     * @param filename the class filename <b>with</b> .class at the end
+     * @param content the array containing the raw byte content
+     * @param offset the start of the class-file data
+     * @param length the length of the class-file data
+     * @return the parsed class file as a <code>DirectClassFile</code> object
+     *
+     * @throws ParseException            if an error occurs while parsing
+     * @throws IndexOutOfBoundsException if the range is out of bounds
+     */
+    public DirectClassFile read(String filename, byte[] content, int offset, int length)
+            throws ParseException {
+        Objects.checkFromIndexSize(offset, length, content.length);
+        if (offset == 0 && length == content.length) {
+            return read(filename, content);
+        }
+        return read(filename, Arrays.copyOfRange(content, offset, offset + length));
+    }
+
     /**
      * Sets whether a class-file version check should be done before parsing.
      *
@@ -0,0 +1,160 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Proto4j
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.proto4j.dx; //@date 18.10.2026
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * A startup profile listing the classes that are used early and should be
+ * placed together in the primary dex-file. Profiles can be read from the
+ * human-readable ART profile format, where every line either names a class
+ * or a method:
+ * <pre>
+ * Lcom/example/App;
+ * HSPLcom/example/App;-&gt;onCreate()V
+ * </pre>
+ * Method entries mark their declaring class as hot. Plain class names like
+ * <code>com.example.App</code> or <code>com/example/App.class</code> are
+ * accepted as well; empty lines and lines starting with <code>#</code> are
+ * ignored.
+ *
+ * @see ShardingPolicy#profileGuided(ClassProfile, ShardingPolicy)
+ */
+public final class ClassProfile {
+
+    /**
+     * Reads a profile from the given file.
+     *
+     * @param file the profile to read
+     * @return the parsed profile
+     * @throws IOException if an I/O Error occurs
+     */
+    public static ClassProfile read(Path file) throws IOException {
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return read(reader);
+        }
+    }
+
+    /**
+     * Reads a profile from the given reader, which won't be closed
+     * afterwards.
+     *
+     * @param reader the source to read from
+     * @return the parsed profile
+     * @throws IOException if an I/O Error occurs
+     */
+    public static ClassProfile read(Reader reader) throws IOException {
+        Set<String>    classes        = new LinkedHashSet<>();
+        BufferedReader bufferedReader = new BufferedReader(reader);
+
+        String line;
+        while ((line = bufferedReader.readLine()) != null) {
+            String entry = line.trim();
+            if (!entry.isEmpty() && !entry.startsWith("#")) {
+                classes.add(toFilename(entry));
+            }
+        }
+        return new ClassProfile(classes);
+    }
+
+    /**
+     * Creates a profile from the given class names.
+     *
+     * @param classNames the hot classes in any supported format
+     * @return the profile
+     */
+    public static ClassProfile of(Collection<String> classNames) {
+        Set<String> classes = new LinkedHashSet<>();
+        for (String className : classNames) {
+            classes.add(toFilename(Objects.requireNonNull(className).trim()));
+        }
+        return new ClassProfile(classes);
+    }
+
+    /**
+     * The filenames of all hot classes in profile order.
+     */
+    private final Set<String> hotClasses;
+
+    private ClassProfile(Set<String> hotClasses) {
+        this.hotClasses = Collections.unmodifiableSet(hotClasses);
+    }
+
+    /**
+     * Returns whether the given class is listed in this profile.
+     *
+     * @param filename the class filename <b>with</b> .class at the end
+     * @return <code>true</code> if the class is hot
+     */
+    public boolean isHot(String filename) {
+        return hotClasses.contains(filename);
+    }
+
+    /**
+     * @return the filenames of all hot classes in profile order
+     */
+    public Set<String> getHotClasses() {
+        return hotClasses;
+    }
+
+    /**
+     * Converts a profile entry into a class filename, e.g.
+     * <code>com/example/App.class</code>.
+     */
+    private static String toFilename(String entry) {
+        String name   = entry;
+        int    method = name.indexOf("->");
+        if (method != -1) {
+            // ART method flags (H, S, P) are only used in front of methods
+            int start = 0;
+            while (start < method && "HSP".indexOf(name.charAt(start)) != -1) {
+                start++;
+            }
+            if (start == method || name.charAt(start) != 'L') {
+                start = 0;
+            }
+            name = name.substring(start, method);
+        }
+
+        if (name.endsWith(";")) {
+            int start = name.startsWith("L") ? 1 : 0;
+            return name.substring(start, name.length() - 1) + ".class";
+        }
+        if (name.endsWith(".class")) {
+            return name;
+        }
+        return name.replace('.', '/') + ".class";
+    }
+}
@@ -28,6 +28,7 @@ import com.android.dx.cf.direct.DirectClassFile;
 import com.android.dx.cf.iface.ParseException;
 import com.android.dx.dex.DexOptions;
 import com.android.dx.dex.file.DexFile;
+import com.android.dx.util.ByteArray;
 import io.github.proto4j.dx.file.DexInputStream;
 import io.github.proto4j.dx.file.DexOutputStream;
 
@@ -63,12 +64,13 @@ final class DefaultDexFactory extends DexFactory {
 
     @Override
     public DexOutputStream newOutputStream() {
-        return newOutputStream(createDexFile(), createClassParser());
+        return newOutputStream(DxVersion.SDK26, TranslationProfile.DEFAULT);
     }
 
     @Override
     public DexOutputStream newOutputStream(DexFile dexFile, ClassParser classParser) {
-        return new DexOutputStream(dexFile, classParser);
+        return new DexOutputStream(dexFile, classParser, getBufferPool(),
+                                   getTranslationContextPool().acquire(), getCfOptions(TranslationProfile.DEFAULT));
     }
 
     @Override
@@ -78,12 +80,12 @@ final class DefaultDexFactory extends DexFactory {
 
     @Override
     public DexInputStream newInputStream() {
-        return new DexInputStream();
+        return new DexInputStream(getBufferPool());
     }
 
     @Override
     public DexInputStream newInputStream(InputStream source, boolean close) throws IOException {
-        return new DexInputStream(source, close);
+        return new DexInputStream(source, close, getBufferPool());
     }
 
     private static class DefaultClassParser extends ClassParser {
@@ -100,6 +102,21 @@ final class DefaultDexFactory extends DexFactory {
 
         @Override
         public DirectClassFile read(String filename, byte[] content) throws ParseException {
+            return read(filename, new ByteArray(content));
+        }
+
+        @Override
+        public DirectClassFile read(String filename, byte[] content, int offset, int length)
+                throws ParseException {
+            Objects.checkFromIndexSize(offset, length, content.length);
+            if (offset != 0) {
+                // dx decodes some constants relative to the start of the array
+                return super.read(filename, content, offset, length);
+            }
+            return read(filename, new ByteArray(content, 0, length));
+        }
+
+        private DirectClassFile read(String filename, ByteArray content) throws ParseException {
             DirectClassFile classFile = new DirectClassFile(content, filename, useStrictMode);
             classFile.setAttributeFactory(attributeFactory);
             classFile.getMagic();//parse
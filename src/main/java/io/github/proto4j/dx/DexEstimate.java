@@ -0,0 +1,144 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Proto4j
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.proto4j.dx; //@date 18.10.2026
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * The projected contribution of one or more classes to a dex-file, as
+ * computed by a {@link DexEstimator}. Id counts are exact for everything
+ * the class-files reference directly; sizes are approximations.
+ */
+public final class DexEstimate {
+
+    /**
+     * The maximum number of method or field ids a single dex-file can hold.
+     */
+    public static final int MAX_MEMBER_IDS = 0x10000;
+
+    private final int  stringIds;
+    private final int  typeIds;
+    private final int  protoIds;
+    private final int  fieldIds;
+    private final int  methodIds;
+    private final int  classDefs;
+    private final long estimatedSize;
+
+    private final Map<String, DexEstimate> classes;
+
+    DexEstimate(int stringIds, int typeIds, int protoIds, int fieldIds, int methodIds, int classDefs,
+                long estimatedSize, Map<String, DexEstimate> classes) {
+        this.stringIds     = stringIds;
+        this.typeIds       = typeIds;
+        this.protoIds      = protoIds;
+        this.fieldIds      = fieldIds;
+        this.methodIds     = methodIds;
+        this.classDefs     = classDefs;
+        this.estimatedSize = estimatedSize;
+        this.classes       = Collections.unmodifiableMap(classes);
+    }
+
+    /**
+     * @return the number of string ids
+     */
+    public int getStringIds() {
+        return stringIds;
+    }
+
+    /**
+     * @return the number of type ids
+     */
+    public int getTypeIds() {
+        return typeIds;
+    }
+
+    /**
+     * @return the number of prototype ids
+     */
+    public int getProtoIds() {
+        return protoIds;
+    }
+
+    /**
+     * @return the number of field ids, including referenced fields of other
+     *         classes
+     */
+    public int getFieldIds() {
+        return fieldIds;
+    }
+
+    /**
+     * @return the number of method ids, including referenced methods of
+     *         other classes
+     */
+    public int getMethodIds() {
+        return methodIds;
+    }
+
+    /**
+     * @return the number of class definitions
+     */
+    public int getClassDefs() {
+        return classDefs;
+    }
+
+    /**
+     * @return the approximate size of the dex-file in bytes
+     */
+    public long getEstimatedSize() {
+        return estimatedSize;
+    }
+
+    /**
+     * @return <code>true</code> if the method and field ids fit into a
+     *         single dex-file
+     */
+    public boolean fitsSingleDex() {
+        return methodIds <= MAX_MEMBER_IDS && fieldIds <= MAX_MEMBER_IDS;
+    }
+
+    /**
+     * Returns the estimates of the individual classes, which are empty for
+     * the estimate of a single class. Ids shared between classes are counted
+     * for every class, so the values don't add up to the total.
+     *
+     * @return the estimates mapped from the class filename
+     */
+    public Map<String, DexEstimate> getClasses() {
+        return classes;
+    }
+
+    @Override
+    public String toString() {
+        return "DexEstimate{classes=" + classDefs
+                + ", strings=" + stringIds
+                + ", types=" + typeIds
+                + ", protos=" + protoIds
+                + ", fields=" + fieldIds
+                + ", methods=" + methodIds
+                + ", size=" + estimatedSize + "}";
+    }
+}
@@ -0,0 +1,556 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Proto4j
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.proto4j.dx; //@date 18.10.2026
+
+import com.android.dx.cf.attrib.RawAttribute;
+import com.android.dx.cf.direct.AttributeFactory;
+import com.android.dx.cf.direct.DirectClassFile;
+import com.android.dx.cf.iface.Attribute;
+import com.android.dx.cf.iface.AttributeList;
+import com.android.dx.cf.iface.Field;
+import com.android.dx.cf.iface.FieldList;
+import com.android.dx.cf.iface.Method;
+import com.android.dx.cf.iface.MethodList;
+import com.android.dx.cf.iface.ParseException;
+import com.android.dx.rop.cst.Constant;
+import com.android.dx.rop.cst.ConstantPool;
+import com.android.dx.rop.cst.CstBaseMethodRef;
+import com.android.dx.rop.cst.CstFieldRef;
+import com.android.dx.rop.cst.CstInvokeDynamic;
+import com.android.dx.rop.cst.CstMethodHandle;
+import com.android.dx.rop.cst.CstProtoRef;
+import com.android.dx.rop.cst.CstString;
+import com.android.dx.rop.cst.CstType;
+import com.android.dx.rop.type.Prototype;
+import com.android.dx.rop.type.TypeList;
+import com.android.dx.util.ByteArray;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Projects the ids and the size a set of classes will add to a dex-file
+ * without translating them. The class-files are parsed with a plain
+ * {@link AttributeFactory}, so only the constant pool and the field and
+ * method tables are read; method bodies are kept as raw attributes. The
+ * few attributes dx turns into annotations (signatures, inner classes,
+ * exceptions and annotations) are scanned for the ids they add.
+ * <pre>
+ * DexEstimator estimator = factory.newEstimator();
+ * DexEstimate  estimate  = estimator.estimateAll(classes);
+ *
+ * if (!estimate.fitsSingleDex()) {
+ *     // plan multiple shards
+ * }
+ * </pre>
+ * The sizes assume the default translation options and are meant for
+ * planning, they may be off by some percent. Instances of this class are not
+ * thread-safe.
+ *
+ * @see DexEstimate
+ * @see ShardingPolicy#byMemberIds(int, DexEstimator)
+ */
+public final class DexEstimator {
+
+    /**
+     * The size of the header and the map list of an empty dex-file.
+     */
+    private static final int BASE_SIZE = 0x70 + 4 + 18 * 12;
+
+    /**
+     * Dalvik code units emitted per byte of Java bytecode, including debug
+     * information.
+     */
+    private static final double CODE_UNITS_PER_BYTE = 1.15;
+
+    private final ClassParser classParser;
+
+    /**
+     * Creates a new estimator. The attribute factory of the given parser is
+     * replaced, so it should not be shared with a <code>DexOutputStream</code>.
+     *
+     * @param classParser the parser to use
+     */
+    public DexEstimator(ClassParser classParser) {
+        this.classParser = Objects.requireNonNull(classParser, "classParser");
+        classParser.setAttributeFactory(new AttributeFactory());
+    }
+
+    /**
+     * Estimates the contribution of a single class.
+     *
+     * @param filename the class filename <b>with</b> .class at the end
+     * @param content the raw byte content
+     * @return the estimate of the class
+     * @throws ParseException if the class-file is malformed
+     */
+    public DexEstimate estimate(String filename, byte[] content) throws ParseException {
+        IdCollector collector = new IdCollector();
+        collector.add(classParser.read(filename, content));
+        return collector.toEstimate(Map.of());
+    }
+
+    /**
+     * Estimates the dex-file built from all given classes. Ids referenced by
+     * multiple classes are only counted once in the total.
+     *
+     * @param classes all classes mapped from their filename (with .class at
+     *         the end) to their bytecode
+     * @return the total estimate including the estimate of each class
+     * @throws ParseException if a class-file is malformed
+     */
+    public DexEstimate estimateAll(Map<String, byte[]> classes) throws ParseException {
+        IdCollector              total     = new IdCollector();
+        Map<String, DexEstimate> estimates = new LinkedHashMap<>();
+        for (Map.Entry<String, byte[]> entry : classes.entrySet()) {
+            IdCollector collector = new IdCollector();
+            collector.add(classParser.read(entry.getKey(), entry.getValue()));
+            estimates.put(entry.getKey(), collector.toEstimate(Map.of()));
+            total.addAll(collector);
+        }
+        return total.toEstimate(estimates);
+    }
+
+    /**
+     * Fills shards in input order until either the method or the field ids
+     * of a shard would exceed the given limit. Classes that cannot be parsed
+     * are added without ids, the translation will report them.
+     */
+    List<Map<String, byte[]>> split(Map<String, byte[]> classes, int maxIds) {
+        List<Map<String, byte[]>> shards = new ArrayList<>();
+        Map<String, byte[]>       shard  = new LinkedHashMap<>();
+        IdCollector               ids    = new IdCollector();
+
+        for (Map.Entry<String, byte[]> entry : classes.entrySet()) {
+            IdCollector collector = new IdCollector();
+            try {
+                collector.add(classParser.read(entry.getKey(), entry.getValue()));
+            } catch (ParseException e) {
+                // estimated as empty
+            }
+            if (!shard.isEmpty() && (ids.countNew(ids.methods, collector.methods) > maxIds
+                                     || ids.countNew(ids.fields, collector.fields) > maxIds)) {
+                shards.add(shard);
+                shard = new LinkedHashMap<>();
+                ids   = new IdCollector();
+            }
+            shard.put(entry.getKey(), entry.getValue());
+            ids.addAll(collector);
+        }
+        if (!shard.isEmpty()) {
+            shards.add(shard);
+        }
+        return shards;
+    }
+
+    /**
+     * The distinct ids referenced by one or more classes.
+     */
+    private static final class IdCollector {
+
+        final Set<String>          strings   = new HashSet<>();
+        final Set<String>          types     = new HashSet<>();
+        final Set<String>          fields    = new HashSet<>();
+        final Set<String>          methods   = new HashSet<>();
+        final Map<String, Integer> typeLists = new HashMap<>();
+        final Set<String>          protos    = new HashSet<>();
+
+        int  classDefs;
+        int  callSites;
+        int  methodHandles;
+        int  declaredFields;
+        int  declaredMethods;
+        long codeBytes;
+        int  codeItems;
+
+        void add(DirectClassFile classFile) {
+            classDefs++;
+            String thisClass = classFile.getThisClass().getClassType().getDescriptor();
+            type(thisClass);
+            if (classFile.getSuperclass() != null) {
+                type(classFile.getSuperclass().getClassType().getDescriptor());
+            }
+            typeList(classFile.getInterfaces());
+
+            // Utf8 and String entries are both parsed into CstString, only
+            // the latter end up in the dex-file
+            ConstantPool pool      = classFile.getConstantPool();
+            int          poolEnd   = stringConstants(classFile.getBytes(), pool);
+            int          thisIndex = classFile.getBytes().getUnsignedShort(poolEnd + 2);
+            for (Constant constant : pool.getEntries()) {
+                if (constant instanceof CstType) {
+                    type(((CstType) constant).getClassType().getDescriptor());
+                } else if (constant instanceof CstFieldRef) {
+                    CstFieldRef ref = (CstFieldRef) constant;
+                    field(ref.getDefiningClass().getClassType().getDescriptor(),
+                          ref.getNat().getName().getString(), ref.getType().getDescriptor());
+                } else if (constant instanceof CstBaseMethodRef) {
+                    CstBaseMethodRef ref = (CstBaseMethodRef) constant;
+                    method(ref.getDefiningClass().getClassType().getDescriptor(),
+                           ref.getNat().getName().getString(), ref.getPrototype());
+                } else if (constant instanceof CstInvokeDynamic) {
+                    callSites++;
+                    proto(((CstInvokeDynamic) constant).getPrototype());
+                } else if (constant instanceof CstMethodHandle) {
+                    methodHandles++;
+                } else if (constant instanceof CstProtoRef) {
+                    proto(((CstProtoRef) constant).getPrototype());
+                }
+            }
+
+            FieldList fieldList = classFile.getFields();
+            for (int i = 0; i < fieldList.size(); i++) {
+                Field field = fieldList.get(i);
+                field(thisClass, field.getName().getString(), field.getDescriptor().getString());
+                declaredFields++;
+                attributes(field.getAttributes(), pool, -1);
+            }
+
+            MethodList methodList = classFile.getMethods();
+            for (int i = 0; i < methodList.size(); i++) {
+                Method method = methodList.get(i);
+                method(thisClass, method.getName().getString(),
+                       Prototype.fromDescriptor(method.getDescriptor().getString()));
+                declaredMethods++;
+                attributes(method.getAttributes(), pool, -1);
+
+                Attribute code = method.getAttributes().findFirst("Code");
+                if (code instanceof RawAttribute) {
+                    // max_stack (u2), max_locals (u2), code_length (u4)
+                    codeBytes += ((RawAttribute) code).getData().getInt(4);
+                    codeItems++;
+                }
+            }
+            attributes(classFile.getAttributes(), pool, thisIndex);
+        }
+
+        /**
+         * Adds the strings of all <code>CONSTANT_String</code> entries and
+         * returns the offset after the constant pool.
+         */
+        private int stringConstants(ByteArray bytes, ConstantPool pool) {
+            int count = bytes.getUnsignedShort(8);
+            int off   = 10;
+            for (int i = 1; i < count; i++) {
+                int tag = bytes.getUnsignedByte(off);
+                switch (tag) {
+                    case 1:  // Utf8
+                        off += 3 + bytes.getUnsignedShort(off + 1);
+                        break;
+                    case 8:  // String
+                        strings.add(((CstString) pool.get(bytes.getUnsignedShort(off + 1))).getString());
+                        off += 3;
+                        break;
+                    case 5:  // Long
+                    case 6:  // Double
+                        off += 9;
+                        i++;
+                        break;
+                    case 15: // MethodHandle
+                        off += 4;
+                        break;
+                    case 7:  // Class
+                    case 16: // MethodType
+                    case 19: // Module
+                    case 20: // Package
+                        off += 3;
+                        break;
+                    default: // Integer, Float, refs, NameAndType, (Invoke)Dynamic
+                        off += 5;
+                        break;
+                }
+            }
+            return off;
+        }
+
+        /**
+         * Adds the ids of the annotations dx creates from the given
+         * attributes.
+         *
+         * @param thisClass the constant pool index of the class, or
+         *         <code>-1</code> for members
+         */
+        private void attributes(AttributeList attributes, ConstantPool pool, int thisClass) {
+            for (int i = 0; i < attributes.size(); i++) {
+                if (!(attributes.get(i) instanceof RawAttribute)) {
+                    continue;
+                }
+                RawAttribute attribute = (RawAttribute) attributes.get(i);
+                ByteArray    data      = attribute.getData();
+                switch (attribute.getName()) {
+                    case "SourceFile":
+                        strings.add(utf8(pool, data.getUnsignedShort(0)));
+                        break;
+                    case "Signature":
+                        systemAnnotation("Signature", "value");
+                        signature(utf8(pool, data.getUnsignedShort(0)));
+                        break;
+                    case "Exceptions":
+                        systemAnnotation("Throws", "value");
+                        break;
+                    case "EnclosingMethod":
+                        systemAnnotation(data.getUnsignedShort(2) == 0 ? "EnclosingClass" : "EnclosingMethod", "value");
+                        break;
+                    case "InnerClasses":
+                        innerClasses(data, pool, thisClass);
+                        break;
+                    case "RuntimeVisibleAnnotations":
+                    case "RuntimeInvisibleAnnotations":
+                        annotations(data, 0, pool);
+                        break;
+                    case "RuntimeVisibleParameterAnnotations":
+                    case "RuntimeInvisibleParameterAnnotations":
+                        int off = 1;
+                        for (int p = 0; p < data.getUnsignedByte(0); p++) {
+                            off = annotations(data, off, pool);
+                        }
+                        break;
+                    case "AnnotationDefault":
+                        systemAnnotation("AnnotationDefault", "value");
+                        elementValue(data, 0, pool);
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+
+        private void innerClasses(ByteArray data, ConstantPool pool, int thisClass) {
+            for (int i = 0, off = 2; i < data.getUnsignedShort(0); i++, off += 8) {
+                int inner = data.getUnsignedShort(off);
+                if (inner == thisClass) {
+                    systemAnnotation("InnerClass", "accessFlags");
+                    strings.add("name");
+                    int name = data.getUnsignedShort(off + 4);
+                    if (name != 0) {
+                        strings.add(utf8(pool, name));
+                    }
+                } else if (data.getUnsignedShort(off + 2) == thisClass) {
+                    systemAnnotation("MemberClasses", "value");
+                }
+            }
+        }
+
+        private int annotations(ByteArray data, int off, ConstantPool pool) {
+            int count = data.getUnsignedShort(off);
+            off += 2;
+            for (int i = 0; i < count; i++) {
+                off = annotation(data, off, pool);
+            }
+            return off;
+        }
+
+        private int annotation(ByteArray data, int off, ConstantPool pool) {
+            type(utf8(pool, data.getUnsignedShort(off)));
+            int pairs = data.getUnsignedShort(off + 2);
+            off += 4;
+            for (int i = 0; i < pairs; i++) {
+                strings.add(utf8(pool, data.getUnsignedShort(off)));
+                off = elementValue(data, off + 2, pool);
+            }
+            return off;
+        }
+
+        private int elementValue(ByteArray data, int off, ConstantPool pool) {
+            char tag = (char) data.getUnsignedByte(off);
+            switch (tag) {
+                case 's':
+                    strings.add(utf8(pool, data.getUnsignedShort(off + 1)));
+                    return off + 3;
+                case 'e':
+                    String enumType = utf8(pool, data.getUnsignedShort(off + 1));
+                    field(enumType, utf8(pool, data.getUnsignedShort(off + 3)), enumType);
+                    return off + 5;
+                case 'c':
+                    String descriptor = utf8(pool, data.getUnsignedShort(off + 1));
+                    type("V".equals(descriptor) ? "Ljava/lang/Void;" : descriptor);
+                    return off + 3;
+                case '@':
+                    return annotation(data, off + 1, pool);
+                case '[':
+                    int count = data.getUnsignedShort(off + 1);
+                    off += 3;
+                    for (int i = 0; i < count; i++) {
+                        off = elementValue(data, off, pool);
+                    }
+                    return off;
+                default: // primitive constants
+                    return off + 3;
+            }
+        }
+
+        private void systemAnnotation(String name, String element) {
+            type("Ldalvik/annotation/" + name + ";");
+            strings.add(element);
+        }
+
+        /**
+         * Adds the pieces dx splits a generic signature into.
+         */
+        private void signature(String signature) {
+            int length = signature.length();
+            for (int at = 0; at < length; ) {
+                int end = at + 1;
+                if (signature.charAt(at) == 'L') {
+                    while (end < length && signature.charAt(end) != ';' && signature.charAt(end) != '<') {
+                        end++;
+                    }
+                    if (end < length && signature.charAt(end) == ';') {
+                        end++;
+                    }
+                } else {
+                    while (end < length && signature.charAt(end) != 'L') {
+                        end++;
+                    }
+                }
+                strings.add(signature.substring(at, end));
+                at = end;
+            }
+        }
+
+        private static String utf8(ConstantPool pool, int index) {
+            return ((CstString) pool.get(index)).getString();
+        }
+
+        void addAll(IdCollector other) {
+            strings.addAll(other.strings);
+            types.addAll(other.types);
+            fields.addAll(other.fields);
+            methods.addAll(other.methods);
+            typeLists.putAll(other.typeLists);
+            protos.addAll(other.protos);
+            classDefs       += other.classDefs;
+            callSites       += other.callSites;
+            methodHandles   += other.methodHandles;
+            declaredFields  += other.declaredFields;
+            declaredMethods += other.declaredMethods;
+            codeBytes       += other.codeBytes;
+            codeItems       += other.codeItems;
+        }
+
+        /**
+         * Returns the size of the given set after adding the other ids.
+         */
+        int countNew(Set<String> current, Set<String> other) {
+            int count = current.size();
+            for (String id : other) {
+                if (!current.contains(id)) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        DexEstimate toEstimate(Map<String, DexEstimate> classes) {
+            long size = BASE_SIZE;
+            size += strings.size() * 4L + types.size() * 4L + protos.size() * 12L;
+            size += fields.size() * 8L + methods.size() * 8L + classDefs * 32L;
+            size += callSites * 4L + methodHandles * 8L;
+            for (String value : strings) {
+                size += stringDataSize(value);
+            }
+            for (int listSize : typeLists.values()) {
+                size += (4 + listSize * 2 + 3) & ~3;
+            }
+            // class data: four counts per class, then index, flags and code offset per member
+            size += classDefs * 4L + declaredFields * 3L + declaredMethods * 5L;
+            size += codeItems * 16L + (long) (codeBytes * CODE_UNITS_PER_BYTE) * 2;
+            return new DexEstimate(strings.size(), types.size(), protos.size(), fields.size(),
+                                   methods.size(), classDefs, size, classes);
+        }
+
+        private void type(String descriptor) {
+            if (types.add(descriptor)) {
+                strings.add(descriptor);
+            }
+        }
+
+        private void typeList(TypeList list) {
+            if (list.size() > 0) {
+                StringBuilder key = new StringBuilder();
+                for (int i = 0; i < list.size(); i++) {
+                    String descriptor = list.getType(i).getDescriptor();
+                    type(descriptor);
+                    key.append(descriptor);
+                }
+                typeLists.put(key.toString(), list.size());
+            }
+        }
+
+        private void proto(Prototype prototype) {
+            if (protos.add(prototype.getDescriptor())) {
+                strings.add(shorty(prototype));
+                type(prototype.getReturnType().getDescriptor());
+                typeList(prototype.getParameterTypes());
+            }
+        }
+
+        private void field(String owner, String name, String type) {
+            if (fields.add(owner + "->" + name + ":" + type)) {
+                strings.add(name);
+                type(owner);
+                type(type);
+            }
+        }
+
+        private void method(String owner, String name, Prototype prototype) {
+            if (methods.add(owner + "->" + name + prototype.getDescriptor())) {
+                strings.add(name);
+                type(owner);
+                proto(prototype);
+            }
+        }
+
+        private static String shorty(Prototype prototype) {
+            StringBuilder shorty = new StringBuilder().append(shortyChar(prototype.getReturnType().getDescriptor()));
+            TypeList      params = prototype.getParameterTypes();
+            for (int i = 0; i < params.size(); i++) {
+                shorty.append(shortyChar(params.getType(i).getDescriptor()));
+            }
+            return shorty.toString();
+        }
+
+        private static char shortyChar(String descriptor) {
+            char c = descriptor.charAt(0);
+            return c == '[' ? 'L' : c;
+        }
+
+        private static int stringDataSize(String value) {
+            int length = value.length();
+            int bytes  = 1 + (length < 0x80 ? 1 : length < 0x4000 ? 2 : 3);
+            for (int i = 0; i < length; i++) {
+                char c = value.charAt(i);
+                bytes += c != 0 && c < 0x80 ? 1 : c < 0x800 ? 2 : 3;
+            }
+            return bytes;
+        }
+    }
+}
@@ -24,15 +24,32 @@
 
 package io.github.proto4j.dx;//@date 28.01.2023
 
+import com.android.dex.Dex;
 import com.android.dx.cf.direct.AttributeFactory;
 import com.android.dx.dex.DexOptions;
+import com.android.dx.dex.cf.CfOptions;
 import com.android.dx.dex.file.DexFile;
+import io.github.proto4j.dx.file.BufferPool;
+import io.github.proto4j.dx.file.DexCache;
 import io.github.proto4j.dx.file.DexInputStream;
 import io.github.proto4j.dx.file.DexOutputStream;
+import io.github.proto4j.dx.file.TranslationContext;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * <code>DexFactory</code> classes can be used to create objects of different
@@ -70,12 +87,38 @@ public abstract class DexFactory {
      */
     protected final int version;
 
+    /**
+     * The cache used by {@link #openDex(Path)}.
+     */
+    private final DexCache dexCache = new DexCache(DexCache.DEFAULT_MAX_BYTES);
+
+    /**
+     * The shared dex options per minimum SDK version.
+     */
+    private final ConcurrentMap<Integer, DexOptions> dexOptions = new ConcurrentHashMap<>();
+
+    /**
+     * The shared translation options per profile.
+     */
+    private final Map<TranslationProfile, CfOptions> cfOptions = new EnumMap<>(TranslationProfile.class);
+
+    /**
+     * The contexts handed to output streams created by this factory.
+     */
+    private final TranslationContext.Pool contextPool =
+            new TranslationContext.Pool(TranslationContext.Pool.DEFAULT_MAX_IDLE);
+
     /**
      * Creates a new <code>DexFactory</code> with the given library version.
      *
      * @param version the version to use
      */
-    protected DexFactory(int version) {this.version = version;}
+    protected DexFactory(int version) {
+        this.version = version;
+        for (TranslationProfile profile : TranslationProfile.values()) {
+            cfOptions.put(profile, profile.createCfOptions());
+        }
+    }
 
     /**
      * Creates a new empty <code>DexFile</code> with the default SDK version,
@@ -129,14 +172,69 @@ public abstract class DexFactory {
      */
     public abstract DexOptions createDexOptions(int sdkVersion);
 
+    /**
+     * Returns the options for the provided minimum Android SDK version that
+     * are shared by the dex-files of all output streams created by this
+     * factory. The options are created once per SDK version by
+     * {@link #createDexOptions(int)} and must not be modified; dex-files
+     * returned by {@link #createDexFile(int)} use a private copy.
+     *
+     * @param sdkVersion the SDK version to use
+     * @return the shared options
+     */
+    public DexOptions getDexOptions(int sdkVersion) {
+        return dexOptions.computeIfAbsent(sdkVersion, this::createDexOptions);
+    }
+
+    /**
+     * Returns the translation options of the given profile that are shared
+     * by all output streams created by this factory. The options must not be
+     * modified; use {@link TranslationProfile#createCfOptions()} to obtain a
+     * private copy.
+     *
+     * @param profile the profile to use
+     * @return the shared options
+     */
+    public CfOptions getCfOptions(TranslationProfile profile) {
+        return cfOptions.get(Objects.requireNonNull(profile, "profile"));
+    }
+
+    /**
+     * Returns the pool of translation contexts used by the output streams of
+     * this factory. Each stream takes a context on creation and returns it
+     * when it is closed.
+     *
+     * @return the context pool of this factory
+     */
+    public TranslationContext.Pool getTranslationContextPool() {
+        return contextPool;
+    }
+
     /**
      * Creates a new simple <code>DexOutputStream</code> with a default DexFile
-     * returned from {@link #createDexFile()}.
+     * that uses the shared options of the preferred SDK version.
      *
      * @return the newly created output stream
+     * @see #newOutputStream(int, TranslationProfile)
      */
     public abstract DexOutputStream newOutputStream();
 
+    /**
+     * Creates a new <code>DexOutputStream</code> for the provided minimum
+     * Android SDK version that translates classes with the options of the
+     * given profile. Both option sets are shared, so creating many small
+     * streams only allocates the dex-file and the stream itself.
+     *
+     * @param sdkVersion the SDK version to use
+     * @param profile the translation profile to use
+     * @return the newly created output stream
+     */
+    public DexOutputStream newOutputStream(int sdkVersion, TranslationProfile profile) {
+        DexOutputStream dos = newOutputStream(createDexFile(getDexOptions(sdkVersion)), createClassParser());
+        dos.setDefaultCfOptions(getCfOptions(profile));
+        return dos;
+    }
+
     /**
      * Creates a new <code>DexOutputStream</code> with the provided dex file.
      *
@@ -189,6 +287,203 @@ public abstract class DexFactory {
      */
     public abstract DexInputStream newInputStream(InputStream source, boolean close) throws IOException;
 
+    /**
+     * Creates a new simple <code>DexInputStream</code> with an input stream
+     * to read from, that optionally verifies the data before converting it.
+     *
+     * @param close whether the provided <code>InputStream</code> should be
+     *         closed after all bytes have been read.
+     * @param source the <code>InputStream</code> to read from
+     * @param verify whether the data should be verified, which can be
+     *         skipped for trusted sources
+     * @return the newly created input stream with all bytes from the source
+     *         stream
+     * @see DexInputStream#setVerify(boolean)
+     */
+    public DexInputStream newInputStream(InputStream source, boolean close, boolean verify) throws IOException {
+        DexInputStream inputStream = newInputStream(source, close);
+        inputStream.setVerify(verify);
+        return inputStream;
+    }
+
+    /**
+     * Loads the given dex-file through the cache of this factory. Repeated
+     * calls return the same <code>Dex</code> object as long as the file's
+     * size and modification time do not change.
+     *
+     * @param file the dex-file to load
+     * @return the loaded dex-file, which must not be modified
+     * @throws IOException if the file could not be read or is malformed
+     * @see #getDexCache()
+     */
+    public Dex openDex(Path file) throws IOException {
+        return getDexCache().get(file);
+    }
+
+    /**
+     * Returns the cache used by {@link #openDex(Path)}. It is bounded by
+     * {@link DexCache#DEFAULT_MAX_BYTES} and can be used to inspect hit and
+     * miss counts.
+     *
+     * @return the dex cache of this factory
+     */
+    public DexCache getDexCache() {
+        return dexCache;
+    }
+
+    /**
+     * Opens the <code>classes.dex</code> and <code>classesN.dex</code>
+     * entries of the given APK. The entries are located through the central
+     * directory and read concurrently on the common <code>ForkJoinPool</code>.
+     *
+     * @param apk the APK (or any other zip-file) to open
+     * @return the dex-files ordered by their number, i.e.
+     *         <code>classes.dex</code>, <code>classes2.dex</code>, ...
+     * @throws IOException if the file is no valid zip-file
+     * @see #openApk(Path, Executor)
+     */
+    public List<Dex> openApk(Path apk) throws IOException {
+        return openApk(apk, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Opens the <code>classes.dex</code> and <code>classesN.dex</code>
+     * entries of the given APK. The entries are located through the central
+     * directory and read concurrently on the provided executor. The returned
+     * list is available immediately: accessing an element waits until the
+     * respective entry has been loaded and throws an
+     * <code>UncheckedIOException</code> if it could not be read.
+     * <p>
+     * Uncompressed (STORED) entries are mapped from the file instead of
+     * being copied to the heap, so the APK must not be modified while the
+     * returned dex-files are in use.
+     *
+     * @param apk the APK (or any other zip-file) to open
+     * @param executor the executor to read the entries on
+     * @return the dex-files ordered by their number, i.e.
+     *         <code>classes.dex</code>, <code>classes2.dex</code>, ...
+     * @throws IOException if the file is no valid zip-file
+     */
+    public List<Dex> openApk(Path apk, Executor executor) throws IOException {
+        Objects.requireNonNull(apk, "apk");
+        Objects.requireNonNull(executor, "executor");
+        return ApkDexList.open(apk, executor);
+    }
+
+    /**
+     * Translates the given classes into multiple independent dex-files. The
+     * classes are split into shards by the given policy, and every shard is
+     * translated by its own <code>DexOutputStream</code> on the common
+     * <code>ForkJoinPool</code>.
+     *
+     * @param inputs all classes mapped from their filename (with .class at
+     *         the end) to their bytecode
+     * @param shardingPolicy the policy to split the classes with
+     * @return the translated shards in the order returned by the policy
+     * @throws IOException if a shard could not be written
+     * @see #compileAll(Map, ShardingPolicy, ForkJoinPool)
+     */
+    public List<DexShard> compileAll(Map<String, byte[]> inputs, ShardingPolicy shardingPolicy)
+            throws IOException {
+        return compileAll(inputs, shardingPolicy, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Translates the given classes into a primary dex-file containing all
+     * classes listed in the given startup profile, followed by one secondary
+     * dex-file with the remaining classes. Keeping the hot classes apart
+     * places their class data and code items on as few pages as possible.
+     *
+     * @param inputs all classes mapped from their filename (with .class at
+     *         the end) to their bytecode
+     * @param profile the startup profile
+     * @return the translated shards, the hot classes first
+     * @throws IOException if a shard could not be written
+     * @see ShardingPolicy#profileGuided(ClassProfile, ShardingPolicy)
+     */
+    public List<DexShard> compileAll(Map<String, byte[]> inputs, ClassProfile profile)
+            throws IOException {
+        return compileAll(inputs, ShardingPolicy.profileGuided(profile, ShardingPolicy.single()));
+    }
+
+    /**
+     * Translates the given classes into multiple independent dex-files. The
+     * classes are split into shards by the given policy, and every shard is
+     * translated by its own <code>DexOutputStream</code> on the provided
+     * pool. As the shards share no state, they can also be distributed to
+     * different processes or machines by calling this method with the
+     * respective subset of shards.
+     *
+     * @param inputs all classes mapped from their filename (with .class at
+     *         the end) to their bytecode
+     * @param shardingPolicy the policy to split the classes with
+     * @param pool the pool to translate the shards on
+     * @return the translated shards in the order returned by the policy
+     * @throws IOException if a shard could not be written
+     */
+    public List<DexShard> compileAll(Map<String, byte[]> inputs, ShardingPolicy shardingPolicy,
+                                     ForkJoinPool pool) throws IOException {
+        Objects.requireNonNull(inputs, "inputs");
+        Objects.requireNonNull(shardingPolicy, "shardingPolicy");
+        Objects.requireNonNull(pool, "pool");
+
+        List<Map<String, byte[]>>         shards = shardingPolicy.split(inputs);
+        List<CompletableFuture<DexShard>> tasks  = new ArrayList<>(shards.size());
+        for (int i = 0; i < shards.size(); i++) {
+            int                 index = i;
+            Map<String, byte[]> shard = shards.get(i);
+            tasks.add(CompletableFuture.supplyAsync(() -> compileShard(index, shard), pool));
+        }
+
+        List<DexShard> results = new ArrayList<>(tasks.size());
+        try {
+            for (CompletableFuture<DexShard> task : tasks) {
+                results.add(task.join());
+            }
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) e.getCause()).getCause();
+            }
+            throw e;
+        }
+        return results;
+    }
+
+    private DexShard compileShard(int index, Map<String, byte[]> classes) {
+        try (DexOutputStream dos = newOutputStream()) {
+            for (Map.Entry<String, byte[]> entry : classes.entrySet()) {
+                dos.putNextClass(entry.getKey());
+                dos.write(entry.getValue());
+                dos.closeClass();
+            }
+            return new DexShard(index, new ArrayList<>(classes.keySet()), dos.toDexBytes(),
+                    dos.getDiagnostics());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns the pool that streams created by this factory take their
+     * internal buffers from. The shared pool returned by
+     * {@link BufferPool#getDefault()} is used by default.
+     *
+     * @return the buffer pool of this factory
+     */
+    public BufferPool getBufferPool() {
+        return BufferPool.getDefault();
+    }
+
+    /**
+     * Creates a new estimator that projects the ids and the size of classes
+     * without translating them.
+     *
+     * @return the newly created estimator
+     */
+    public DexEstimator newEstimator() {
+        return new DexEstimator(createClassParser(new AttributeFactory()));
+    }
+
     /**
      * Creates a new <code>ClassParser</code> with its default options.
      *
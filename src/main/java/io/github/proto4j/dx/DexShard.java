@@ -0,0 +1,84 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Proto4j
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.proto4j.dx; //@date 18.10.2026
+
+import io.github.proto4j.dx.file.DiagnosticCollector;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The output of a single shard created by
+ * {@link DexFactory#compileAll(java.util.Map, ShardingPolicy)}.
+ *
+ * @see ShardingPolicy
+ */
+public final class DexShard {
+
+    private final int                 index;
+    private final List<String>        classNames;
+    private final byte[]              content;
+    private final DiagnosticCollector diagnostics;
+
+    DexShard(int index, List<String> classNames, byte[] content, DiagnosticCollector diagnostics) {
+        this.index       = index;
+        this.classNames  = Collections.unmodifiableList(classNames);
+        this.content     = content;
+        this.diagnostics = diagnostics;
+    }
+
+    /**
+     * @return the position of this shard in the output list
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * @return the filenames of all classes in this shard
+     */
+    public List<String> getClassNames() {
+        return classNames;
+    }
+
+    /**
+     * @return the raw dex-file data of this shard
+     */
+    public byte[] toByteArray() {
+        return content;
+    }
+
+    /**
+     * @return the classes of this shard that could not be translated
+     */
+    public DiagnosticCollector getDiagnostics() {
+        return diagnostics;
+    }
+
+    @Override
+    public String toString() {
+        return "DexShard{index=" + index + ", classes=" + classNames.size() + ", size=" + content.length + "}";
+    }
+}
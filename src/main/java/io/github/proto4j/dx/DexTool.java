@@ -0,0 +1,144 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Proto4j
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.proto4j.dx; //@date 18.10.2026
+
+import io.github.proto4j.dx.file.DexInputStream;
+import io.github.proto4j.dx.file.DexOutputStream;
+import io.github.proto4j.dx.file.DexVisitor;
+import io.github.proto4j.dx.file.DiagnosticCollector;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.CodeSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipInputStream;
+
+/**
+ * A small command line entry point that converts a jar-file into a single
+ * dex-file:
+ * <pre>
+ * java -jar proto4j-dx.jar app.jar [classes.dex]
+ * </pre>
+ * When started with <code>--train</code>, the tool converts a corpus of
+ * jar-files (by default the jar-file this class was loaded from) and reads
+ * the results back without writing any output. This run loads and
+ * initializes all classes used by the <code>DexFactory</code>, the
+ * <code>ClassParser</code> and the <code>CfTranslator</code>, which makes it
+ * suitable for recording an AppCDS archive:
+ * <pre>
+ * java -XX:ArchiveClassesAtExit=proto4j-dx.jsa -jar proto4j-dx.jar --train
+ * java -XX:SharedArchiveFile=proto4j-dx.jsa -jar proto4j-dx.jar app.jar
+ * </pre>
+ */
+public final class DexTool {
+
+    private DexTool() {}
+
+    public static void main(String[] args) throws IOException {
+        if (args.length >= 1 && "--train".equals(args[0])) {
+            List<Path> corpus = new ArrayList<>();
+            for (int i = 1; i < args.length; i++) {
+                corpus.add(Paths.get(args[i]));
+            }
+            if (corpus.isEmpty()) {
+                corpus.add(codeSource());
+            }
+            train(corpus);
+            return;
+        }
+
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("Usage: DexTool <input.jar> [output.dex]");
+            System.err.println("       DexTool --train [corpus.jar...]");
+            System.exit(2);
+        }
+
+        Path output = Paths.get(args.length == 2 ? args[1] : "classes.dex");
+        try (OutputStream outputStream = Files.newOutputStream(output)) {
+            outputStream.write(convert(Paths.get(args[0])));
+        }
+    }
+
+    /**
+     * Converts all classes of the given jar-file into a dex-file.
+     *
+     * @param input the jar-file to convert
+     * @return the raw dex-file data
+     * @throws IOException if an I/O Error occurs
+     */
+    public static byte[] convert(Path input) throws IOException {
+        DexFactory factory = DexFactory.getDefault();
+        try (DexOutputStream dos = factory.newOutputStream();
+             ZipInputStream zis = new ZipInputStream(Files.newInputStream(input))) {
+            dos.writeAll(zis);
+
+            DiagnosticCollector diagnostics = dos.getDiagnostics();
+            if (diagnostics.hasFailures()) {
+                diagnostics.getDiagnostics().forEach(System.err::println);
+                System.err.println("Skipped " + diagnostics);
+            }
+            return dos.toDexBytes();
+        }
+    }
+
+    /**
+     * Runs the complete conversion pipeline over the given corpus and reads
+     * each result back.
+     *
+     * @param corpus the jar-files to convert
+     * @throws IOException if an I/O Error occurs
+     */
+    public static void train(List<Path> corpus) throws IOException {
+        DexFactory factory = DexFactory.getDefault();
+        for (Path input : corpus) {
+            byte[] content = convert(input);
+
+            try (InputStream source = new ByteArrayInputStream(content);
+                 DexInputStream dis = factory.newInputStream(source, true, true)) {
+                dis.toDex();
+                dis.accept(new DexVisitor() {});
+            }
+        }
+    }
+
+    private static Path codeSource() throws IOException {
+        CodeSource codeSource = DexTool.class.getProtectionDomain().getCodeSource();
+        if (codeSource == null) {
+            throw new IOException("Could not locate the training corpus");
+        }
+        try {
+            return Paths.get(codeSource.getLocation().toURI());
+        } catch (URISyntaxException e) {
+            throw new IOException("Could not locate the training corpus", e);
+        }
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Proto4j
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.proto4j.dx; //@date 18.10.2026
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A <code>ShardingPolicy</code> splits a set of Java class files into shards
+ * that are translated into independent dex-files by
+ * {@link DexFactory#compileAll(Map, ShardingPolicy)}. Each shard should be
+ * small enough to fit into a single dex-file.
+ * <p>
+ * Policies must be deterministic: the same input always results in the same
+ * shards, so that shard outputs can be compared or cached across builds.
+ *
+ * @see DexFactory#compileAll(Map, ShardingPolicy)
+ */
+@FunctionalInterface
+public interface ShardingPolicy {
+
+    /**
+     * Splits the given classes into shards.
+     *
+     * @param classes all classes mapped from their filename (with .class at
+     *         the end) to their bytecode, in input order
+     * @return the shards, each one mapping filenames to bytecode
+     */
+    List<Map<String, byte[]>> split(Map<String, byte[]> classes);
+
+    /**
+     * Returns a policy that puts all classes into one shard.
+     *
+     * @return the policy
+     */
+    static ShardingPolicy single() {
+        return classes -> classes.isEmpty() ? List.of() : List.of(new LinkedHashMap<>(classes));
+    }
+
+    /**
+     * Returns a policy that fills shards with classes in input order until
+     * the given amount of bytecode is reached.
+     *
+     * @param maxShardSize the maximum amount of bytecode per shard
+     * @return the policy
+     */
+    static ShardingPolicy bySize(long maxShardSize) {
+        if (maxShardSize <= 0) {
+            throw new IllegalArgumentException("Illegal non-positive number");
+        }
+        return classes -> {
+            List<Map<String, byte[]>> shards = new ArrayList<>();
+            Map<String, byte[]>       shard  = new LinkedHashMap<>();
+            long                      size   = 0;
+
+            for (Map.Entry<String, byte[]> entry : classes.entrySet()) {
+                int length = entry.getValue().length;
+                if (!shard.isEmpty() && size + length > maxShardSize) {
+                    shards.add(shard);
+                    shard = new LinkedHashMap<>();
+                    size  = 0;
+                }
+                shard.put(entry.getKey(), entry.getValue());
+                size += length;
+            }
+            if (!shard.isEmpty()) {
+                shards.add(shard);
+            }
+            return shards;
+        };
+    }
+
+    /**
+     * Returns a policy that keeps all classes of a package in the same shard
+     * and packs whole packages into shards until the given amount of
+     * bytecode is reached. A package that is larger than the limit on its
+     * own will be placed into a separate shard.
+     *
+     * @param maxShardSize the maximum amount of bytecode per shard
+     * @return the policy
+     */
+    static ShardingPolicy byPackage(long maxShardSize) {
+        if (maxShardSize <= 0) {
+            throw new IllegalArgumentException("Illegal non-positive number");
+        }
+        return classes -> {
+            Map<String, Map<String, byte[]>> packages = new LinkedHashMap<>();
+            for (Map.Entry<String, byte[]> entry : classes.entrySet()) {
+                String name        = entry.getKey();
+                int    index       = name.lastIndexOf('/');
+                String packageName = index == -1 ? "" : name.substring(0, index);
+                packages.computeIfAbsent(packageName, key -> new LinkedHashMap<>())
+                        .put(name, entry.getValue());
+            }
+
+            List<Map<String, byte[]>> shards = new ArrayList<>();
+            Map<String, byte[]>       shard  = new LinkedHashMap<>();
+            long                      size   = 0;
+
+            for (Map<String, byte[]> members : packages.values()) {
+                long length = 0;
+                for (byte[] bytes : members.values()) {
+                    length += bytes.length;
+                }
+                if (!shard.isEmpty() && size + length > maxShardSize) {
+                    shards.add(shard);
+                    shard = new LinkedHashMap<>();
+                    size  = 0;
+                }
+                shard.putAll(members);
+                size += length;
+            }
+            if (!shard.isEmpty()) {
+                shards.add(shard);
+            }
+            return shards;
+        };
+    }
+
+    /**
+     * Returns a policy that fills shards with classes in input order until
+     * the projected method or field ids of a shard would exceed the given
+     * limit. The ids are projected by the given estimator without
+     * translating the classes.
+     *
+     * @param maxIds the maximum number of method or field ids per shard, at
+     *         most {@link DexEstimate#MAX_MEMBER_IDS}
+     * @param estimator the estimator to project the ids with, which must not
+     *         be used by other threads while the policy runs
+     * @return the policy
+     */
+    static ShardingPolicy byMemberIds(int maxIds, DexEstimator estimator) {
+        if (maxIds <= 0 || maxIds > DexEstimate.MAX_MEMBER_IDS) {
+            throw new IllegalArgumentException("Illegal member id limit: " + maxIds);
+        }
+        Objects.requireNonNull(estimator, "estimator");
+        return classes -> estimator.split(classes, maxIds);
+    }
+
+    /**
+     * Returns a policy that places all classes listed in the given profile
+     * into the first shard, which should become the primary dex-file. As
+     * the dx tool lays out class data and code items in the order of the
+     * class definitions, only the hot classes share the pages of the first
+     * shard. All other classes are split by the given policy.
+     *
+     * @param profile the startup profile
+     * @param coldPolicy the policy to split the remaining classes with
+     * @return the policy
+     */
+    static ShardingPolicy profileGuided(ClassProfile profile, ShardingPolicy coldPolicy) {
+        Objects.requireNonNull(profile, "profile");
+        Objects.requireNonNull(coldPolicy, "coldPolicy");
+        return classes -> {
+            Map<String, byte[]> hot  = new LinkedHashMap<>();
+            Map<String, byte[]> cold = new LinkedHashMap<>();
+            for (String name : profile.getHotClasses()) {
+                byte[] bytes = classes.get(name);
+                if (bytes != null) {
+                    hot.put(name, bytes);
+                }
+            }
+            for (Map.Entry<String, byte[]> entry : classes.entrySet()) {
+                if (!hot.containsKey(entry.getKey())) {
+                    cold.put(entry.getKey(), entry.getValue());
+                }
+            }
+
+            List<Map<String, byte[]>> shards = new ArrayList<>();
+            if (!hot.isEmpty()) {
+                shards.add(hot);
+            }
+            shards.addAll(coldPolicy.split(cold));
+            return shards;
+        };
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Proto4j
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.proto4j.dx; //@date 18.10.2026
+
+import com.android.dx.dex.cf.CfOptions;
+import com.android.dx.dex.code.PositionList;
+
+/**
+ * Predefined translation options. The options of each profile are created
+ * once per factory and shared by all streams, see
+ * {@link DexFactory#getCfOptions(TranslationProfile)}.
+ */
+public enum TranslationProfile {
+
+    /**
+     * The defaults of the dx tool: line numbers are kept, local variable
+     * information is dropped and no optimizations are applied.
+     */
+    DEFAULT,
+
+    /**
+     * Keeps line numbers and local variable information for debuggers.
+     */
+    DEBUG,
+
+    /**
+     * Keeps line numbers and runs the optimizer on all methods.
+     */
+    RELEASE;
+
+    /**
+     * Creates a new instance of the options defined by this profile.
+     *
+     * @return the newly created options
+     */
+    public CfOptions createCfOptions() {
+        CfOptions options = new CfOptions();
+        options.positionInfo = PositionList.LINES;
+        switch (this) {
+            case DEBUG:
+                options.localInfo = true;
+                break;
+            case RELEASE:
+                options.optimize = true;
+                break;
+            default:
+                break;
+        }
+        return options;
+    }
+}
@@ -0,0 +1,617 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Proto4j
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.proto4j.dx.diff; //@date 18.10.2026
+
+import com.android.dex.Dex;
+import com.android.dex.TableOfContents;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Computes a 64-bit fingerprint for every class definition of a dex-file.
+ * All references to strings, types, prototypes, fields, methods, method
+ * handles and call sites are replaced by fingerprints of their names, so
+ * the result does not depend on how the ids are numbered. Debug
+ * information is not included.
+ */
+final class ClassHasher {
+
+    private static final int NO_INDEX = -1;
+
+    /**
+     * Class definitions per leaf task.
+     */
+    private static final int CLASS_THRESHOLD = 64;
+
+    /**
+     * Strings per leaf task.
+     */
+    private static final int STRING_THRESHOLD = 4096;
+
+    // Index operands of instructions
+    private static final byte INDEX_NONE          = 0;
+    private static final byte INDEX_STRING        = 1;
+    private static final byte INDEX_STRING_JUMBO  = 2;
+    private static final byte INDEX_TYPE          = 3;
+    private static final byte INDEX_FIELD         = 4;
+    private static final byte INDEX_METHOD        = 5;
+    private static final byte INDEX_METHOD_PROTO  = 6;
+    private static final byte INDEX_CALL_SITE     = 7;
+    private static final byte INDEX_METHOD_HANDLE = 8;
+    private static final byte INDEX_PROTO         = 9;
+
+    /**
+     * The width in code units of every opcode.
+     */
+    private static final byte[] WIDTHS = new byte[256];
+
+    /**
+     * The kind of index referenced by every opcode.
+     */
+    private static final byte[] INDICES = new byte[256];
+
+    static {
+        Arrays.fill(WIDTHS, (byte) 1);
+        width(0x02, 0x02, 2);                           // move/from16
+        width(0x03, 0x03, 3);                           // move/16
+        width(0x05, 0x05, 2);
+        width(0x06, 0x06, 3);
+        width(0x08, 0x08, 2);
+        width(0x09, 0x09, 3);
+        width(0x13, 0x13, 2);                           // const/16
+        width(0x14, 0x14, 3);                           // const
+        width(0x15, 0x16, 2);                           // const/high16, const-wide/16
+        width(0x17, 0x17, 3);                           // const-wide/32
+        width(0x18, 0x18, 5);                           // const-wide
+        width(0x19, 0x19, 2);                           // const-wide/high16
+        index(0x1A, 0x1A, 2, INDEX_STRING);             // const-string
+        index(0x1B, 0x1B, 3, INDEX_STRING_JUMBO);       // const-string/jumbo
+        index(0x1C, 0x1C, 2, INDEX_TYPE);               // const-class
+        index(0x1F, 0x20, 2, INDEX_TYPE);               // check-cast, instance-of
+        index(0x22, 0x23, 2, INDEX_TYPE);               // new-instance, new-array
+        index(0x24, 0x25, 3, INDEX_TYPE);               // filled-new-array(/range)
+        width(0x26, 0x26, 3);                           // fill-array-data
+        width(0x29, 0x29, 2);                           // goto/16
+        width(0x2A, 0x2C, 3);                           // goto/32, switches
+        width(0x2D, 0x3D, 2);                           // cmp, if-test(z)
+        width(0x44, 0x51, 2);                           // aget, aput
+        index(0x52, 0x6D, 2, INDEX_FIELD);              // iget, iput, sget, sput
+        index(0x6E, 0x72, 3, INDEX_METHOD);             // invoke-kind
+        index(0x74, 0x78, 3, INDEX_METHOD);             // invoke-kind/range
+        width(0x90, 0xAF, 2);                           // binop
+        width(0xD0, 0xE2, 2);                           // binop/lit16, binop/lit8
+        index(0xFA, 0xFB, 4, INDEX_METHOD_PROTO);       // invoke-polymorphic(/range)
+        index(0xFC, 0xFD, 3, INDEX_CALL_SITE);          // invoke-custom(/range)
+        index(0xFE, 0xFE, 2, INDEX_METHOD_HANDLE);      // const-method-handle
+        index(0xFF, 0xFF, 2, INDEX_PROTO);              // const-method-type
+    }
+
+    private static void width(int from, int to, int width) {
+        index(from, to, width, INDEX_NONE);
+    }
+
+    private static void index(int from, int to, int width, byte index) {
+        for (int i = from; i <= to; i++) {
+            WIDTHS[i]  = (byte) width;
+            INDICES[i] = index;
+        }
+    }
+
+    private final Dex             dex;
+    private final ByteBuffer      data;
+    private final TableOfContents toc;
+
+    private long[] strings;
+    private long[] types;
+    private long[] protos;
+    private long[] fields;
+    private long[] methods;
+    private long[] classes;
+
+    ClassHasher(Dex dex) {
+        this.dex  = dex;
+        this.data = ByteBuffer.wrap(dex.getBytes()).order(ByteOrder.LITTLE_ENDIAN);
+        this.toc  = dex.getTableOfContents();
+    }
+
+    /**
+     * Returns a task that computes the fingerprints of all classes.
+     */
+    ForkJoinTask<Void> hashAll() {
+        return new RecursiveAction() {
+            @Override
+            protected void compute() {
+                strings = new long[toc.stringIds.size];
+                new StringTask(0, strings.length).invoke();
+                hashIds();
+
+                classes = new long[toc.classDefs.size];
+                new ClassTask(0, classes.length).invoke();
+            }
+        };
+    }
+
+    /**
+     * @return the number of class definitions
+     */
+    int getClassCount() {
+        return toc.classDefs.size;
+    }
+
+    /**
+     * @return the descriptor of the given class definition
+     */
+    String getDescriptor(int classDef) {
+        int typeIndex = data.getInt(toc.classDefs.off + classDef * 32);
+        return dex.typeNames().get(typeIndex);
+    }
+
+    /**
+     * @return the fingerprint of the given class definition
+     */
+    long getHash(int classDef) {
+        return classes[classDef];
+    }
+
+    private void hashIds() {
+        types = new long[toc.typeIds.size];
+        for (int i = 0; i < types.length; i++) {
+            types[i] = mix(1, strings[data.getInt(toc.typeIds.off + i * 4)]);
+        }
+
+        protos = new long[toc.protoIds.size];
+        for (int i = 0, off = toc.protoIds.off; i < protos.length; i++, off += 12) {
+            long hash = mix(2, types[data.getInt(off + 4)]);
+            protos[i] = typeList(hash, data.getInt(off + 8));
+        }
+
+        fields = new long[toc.fieldIds.size];
+        for (int i = 0, off = toc.fieldIds.off; i < fields.length; i++, off += 8) {
+            long hash = mix(3, types[u2(off)]);
+            hash = mix(hash, types[u2(off + 2)]);
+            fields[i] = mix(hash, strings[data.getInt(off + 4)]);
+        }
+
+        methods = new long[toc.methodIds.size];
+        for (int i = 0, off = toc.methodIds.off; i < methods.length; i++, off += 8) {
+            long hash = mix(4, types[u2(off)]);
+            hash = mix(hash, protos[u2(off + 2)]);
+            methods[i] = mix(hash, strings[data.getInt(off + 4)]);
+        }
+    }
+
+    private long hashString(int index, Cursor cursor) {
+        cursor.pos = data.getInt(toc.stringIds.off + index * 4);
+        long hash = mix(0, cursor.uleb128());
+        int    b;
+        while ((b = cursor.u1()) != 0) {
+            hash = mix(hash, b);
+        }
+        return hash;
+    }
+
+    private long hashClass(int classDef, Cursor cursor) {
+        int  off  = toc.classDefs.off + classDef * 32;
+        long hash = mix(5, data.getInt(off + 4));
+        hash = mix(hash, type(data.getInt(off + 8)));
+        hash = typeList(hash, data.getInt(off + 12));
+        hash = mix(hash, string(data.getInt(off + 16)));
+        hash = annotationsDirectory(hash, data.getInt(off + 20));
+
+        int classData = data.getInt(off + 24);
+        if (classData != 0) {
+            cursor.pos = classData;
+            int staticFields   = cursor.uleb128();
+            int instanceFields = cursor.uleb128();
+            int directMethods  = cursor.uleb128();
+            int virtualMethods = cursor.uleb128();
+            hash = mix(hash, staticFields);
+            hash = mix(hash, instanceFields);
+            hash = mix(hash, directMethods);
+            hash = mix(hash, virtualMethods);
+            hash = members(hash, cursor, staticFields, false);
+            hash = members(hash, cursor, instanceFields, false);
+            hash = members(hash, cursor, directMethods, true);
+            hash = members(hash, cursor, virtualMethods, true);
+        }
+
+        int staticValues = data.getInt(off + 28);
+        if (staticValues != 0) {
+            cursor.pos = staticValues;
+            hash = encodedArray(mix(hash, 6), cursor);
+        }
+        return hash;
+    }
+
+    private long members(long hash, Cursor cursor, int count, boolean isMethod) {
+        int index = 0;
+        for (int i = 0; i < count; i++) {
+            index += cursor.uleb128();
+            hash = mix(hash, isMethod ? methods[index] : fields[index]);
+            hash = mix(hash, cursor.uleb128());
+            if (isMethod) {
+                int code = cursor.uleb128();
+                if (code != 0) {
+                    hash = code(hash, code);
+                }
+            }
+        }
+        return hash;
+    }
+
+    private long code(long hash, int off) {
+        hash = mix(hash, u2(off));                      // registers
+        hash = mix(hash, u2(off + 2));                  // ins
+        hash = mix(hash, u2(off + 4));                  // outs
+        int triesSize = u2(off + 6);
+        int insnsSize = data.getInt(off + 12);
+        int insns     = off + 16;
+        hash = mix(hash, triesSize);
+        hash = mix(hash, insnsSize);
+
+        int pc = 0;
+        while (pc < insnsSize) {
+            int unit   = u2(insns + pc * 2);
+            int opcode = unit & 0xFF;
+            int width;
+            if (opcode == 0 && unit != 0) {
+                width = payloadWidth(unit, insns + pc * 2);
+                for (int i = 0; i < width && pc + i < insnsSize; i++) {
+                    hash = mix(hash, u2(insns + (pc + i) * 2));
+                }
+            } else {
+                width = WIDTHS[opcode];
+                hash  = instruction(hash, INDICES[opcode], insns + pc * 2, Math.min(width, insnsSize - pc));
+            }
+            pc += width;
+        }
+
+        if (triesSize > 0) {
+            int tries    = insns + insnsSize * 2 + (insnsSize & 1) * 2;
+            int handlers = tries + triesSize * 8;
+            Cursor cursor = new Cursor(0);
+            for (int i = 0; i < triesSize; i++) {
+                int entry = tries + i * 8;
+                hash = mix(hash, data.getInt(entry));
+                hash = mix(hash, u2(entry + 4));
+
+                cursor.pos = handlers + u2(entry + 6);
+                int size = cursor.sleb128();
+                hash = mix(hash, size);
+                for (int h = 0; h < Math.abs(size); h++) {
+                    hash = mix(hash, types[cursor.uleb128()]);
+                    hash = mix(hash, cursor.uleb128());
+                }
+                if (size <= 0) {
+                    hash = mix(hash, cursor.uleb128());
+                }
+            }
+        }
+        return hash;
+    }
+
+    private long instruction(long hash, byte indexKind, int off, int width) {
+        long index;
+        int  first = 1, last = 2;
+        switch (indexKind) {
+            case INDEX_NONE:
+                first = last = width;
+                index = 0;
+                break;
+            case INDEX_STRING:
+                index = strings[u2(off + 2)];
+                break;
+            case INDEX_STRING_JUMBO:
+                index = strings[data.getInt(off + 2)];
+                last  = 3;
+                break;
+            case INDEX_TYPE:
+                index = types[u2(off + 2)];
+                break;
+            case INDEX_FIELD:
+                index = fields[u2(off + 2)];
+                break;
+            case INDEX_METHOD:
+                index = methods[u2(off + 2)];
+                break;
+            case INDEX_METHOD_PROTO:
+                index = mix(methods[u2(off + 2)], protos[u2(off + 6)]);
+                break;
+            case INDEX_CALL_SITE:
+                index = callSite(u2(off + 2));
+                break;
+            case INDEX_METHOD_HANDLE:
+                index = methodHandle(u2(off + 2));
+                break;
+            case INDEX_PROTO:
+                index = protos[u2(off + 2)];
+                break;
+            default:
+                throw new IllegalStateException("Unknown index kind: " + indexKind);
+        }
+
+        hash = mix(hash, index);
+        for (int i = 0; i < width; i++) {
+            // the proto of invoke-polymorphic is part of the index
+            boolean isIndex = (i >= first && i < last) || (indexKind == INDEX_METHOD_PROTO && i == 3);
+            if (!isIndex) {
+                hash = mix(hash, u2(off + i * 2));
+            }
+        }
+        return hash;
+    }
+
+    private int payloadWidth(int ident, int off) {
+        switch (ident) {
+            case 0x0100: // packed-switch-payload
+                return 4 + u2(off + 2) * 2;
+            case 0x0200: // sparse-switch-payload
+                return 2 + u2(off + 2) * 4;
+            case 0x0300: // fill-array-data-payload
+                long bytes = (long) u2(off + 2) * (data.getInt(off + 4) & 0xFFFFFFFFL);
+                return (int) (4 + (bytes + 1) / 2);
+            default:
+                return 1;
+        }
+    }
+
+    private long annotationsDirectory(long hash, int off) {
+        if (off == 0) {
+            return hash;
+        }
+        hash = annotationSet(mix(hash, 7), data.getInt(off));
+        int fieldsSize     = data.getInt(off + 4);
+        int methodsSize    = data.getInt(off + 8);
+        int parametersSize = data.getInt(off + 12);
+
+        int entry = off + 16;
+        for (int i = 0; i < fieldsSize; i++, entry += 8) {
+            hash = mix(hash, fields[data.getInt(entry)]);
+            hash = annotationSet(hash, data.getInt(entry + 4));
+        }
+        for (int i = 0; i < methodsSize; i++, entry += 8) {
+            hash = mix(hash, methods[data.getInt(entry)]);
+            hash = annotationSet(hash, data.getInt(entry + 4));
+        }
+        for (int i = 0; i < parametersSize; i++, entry += 8) {
+            hash = mix(hash, methods[data.getInt(entry)]);
+            int refList = data.getInt(entry + 4);
+            int size    = data.getInt(refList);
+            hash = mix(hash, size);
+            for (int p = 0; p < size; p++) {
+                hash = annotationSet(hash, data.getInt(refList + 4 + p * 4));
+            }
+        }
+        return hash;
+    }
+
+    private long annotationSet(long hash, int off) {
+        if (off == 0) {
+            return mix(hash, 0);
+        }
+        int    size   = data.getInt(off);
+        Cursor cursor = new Cursor(0);
+        hash = mix(hash, size);
+        for (int i = 0; i < size; i++) {
+            cursor.pos = data.getInt(off + 4 + i * 4);
+            hash = mix(hash, cursor.u1());              // visibility
+            hash = encodedAnnotation(hash, cursor);
+        }
+        return hash;
+    }
+
+    private long encodedArray(long hash, Cursor cursor) {
+        int size = cursor.uleb128();
+        hash = mix(hash, size);
+        for (int i = 0; i < size; i++) {
+            hash = encodedValue(hash, cursor);
+        }
+        return hash;
+    }
+
+    private long encodedAnnotation(long hash, Cursor cursor) {
+        hash = mix(hash, types[cursor.uleb128()]);
+        int size = cursor.uleb128();
+        hash = mix(hash, size);
+        for (int i = 0; i < size; i++) {
+            hash = mix(hash, strings[cursor.uleb128()]);
+            hash = encodedValue(hash, cursor);
+        }
+        return hash;
+    }
+
+    private long encodedValue(long hash, Cursor cursor) {
+        int header    = cursor.u1();
+        int valueType = header & 0x1F;
+        int size      = (header >>> 5) + 1;
+        // The size of an index depends on the numbering only
+        hash = mix(hash, valueType >= 0x15 && valueType <= 0x1B ? valueType : header);
+        switch (valueType) {
+            case 0x15: // VALUE_METHOD_TYPE
+                return mix(hash, protos[cursor.index(size)]);
+            case 0x16: // VALUE_METHOD_HANDLE
+                return mix(hash, methodHandle(cursor.index(size)));
+            case 0x17: // VALUE_STRING
+                return mix(hash, strings[cursor.index(size)]);
+            case 0x18: // VALUE_TYPE
+                return mix(hash, types[cursor.index(size)]);
+            case 0x19: // VALUE_FIELD
+            case 0x1B: // VALUE_ENUM
+                return mix(hash, fields[cursor.index(size)]);
+            case 0x1A: // VALUE_METHOD
+                return mix(hash, methods[cursor.index(size)]);
+            case 0x1C: // VALUE_ARRAY
+                return encodedArray(hash, cursor);
+            case 0x1D: // VALUE_ANNOTATION
+                return encodedAnnotation(hash, cursor);
+            case 0x1E: // VALUE_NULL
+            case 0x1F: // VALUE_BOOLEAN, the value is part of the header
+                return hash;
+            default:
+                for (int i = 0; i < size; i++) {
+                    hash = mix(hash, cursor.u1());
+                }
+                return hash;
+        }
+    }
+
+    private long methodHandle(int index) {
+        int  off  = toc.methodHandles.off + index * 8;
+        int  kind = u2(off);
+        long hash = mix(8, kind);
+        // kinds 0x00..0x03 access fields, all others invoke methods
+        return mix(hash, kind <= 0x03 ? fields[u2(off + 4)] : methods[u2(off + 4)]);
+    }
+
+    private long callSite(int index) {
+        Cursor cursor = new Cursor(data.getInt(toc.callSiteIds.off + index * 4));
+        return encodedArray(9, cursor);
+    }
+
+    private long typeList(long hash, int off) {
+        if (off == 0) {
+            return mix(hash, 0);
+        }
+        int size = data.getInt(off);
+        hash = mix(hash, size);
+        for (int i = 0; i < size; i++) {
+            hash = mix(hash, types[u2(off + 4 + i * 2)]);
+        }
+        return hash;
+    }
+
+    private long type(int index) {
+        return index == NO_INDEX ? 0 : types[index];
+    }
+
+    private long string(int index) {
+        return index == NO_INDEX ? 0 : strings[index];
+    }
+
+    private int u2(int off) {
+        return data.getShort(off) & 0xFFFF;
+    }
+
+    private static long mix(long hash, long value) {
+        hash ^= value * 0x9E3779B97F4A7C15L;
+        return Long.rotateLeft(hash, 27) * 0xC2B2AE3D27D4EB4FL + 0x165667B19E3779F9L;
+    }
+
+    /**
+     * A read position for variable-length data.
+     */
+    private final class Cursor {
+        int pos;
+
+        Cursor(int pos) {
+            this.pos = pos;
+        }
+
+        int u1() {
+            return data.get(pos++) & 0xFF;
+        }
+
+        int index(int size) {
+            int result = 0;
+            for (int i = 0; i < size; i++) {
+                result |= u1() << (i * 8);
+            }
+            return result;
+        }
+
+        int uleb128() {
+            int result = 0, shift = 0, b;
+            do {
+                b = u1();
+                result |= (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0 && shift < 35);
+            return result;
+        }
+
+        int sleb128() {
+            int result = 0, shift = 0, b;
+            do {
+                b = u1();
+                result |= (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0 && shift < 35);
+            if (shift < 32 && (b & 0x40) != 0) {
+                result |= -1 << shift;
+            }
+            return result;
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private final class StringTask extends RecursiveAction {
+        private final int from, to;
+
+        StringTask(int from, int to) {
+            this.from = from;
+            this.to   = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= STRING_THRESHOLD) {
+                Cursor cursor = new Cursor(0);
+                for (int i = from; i < to; i++) {
+                    strings[i] = hashString(i, cursor);
+                }
+            } else {
+                int mid = (from + to) >>> 1;
+                invokeAll(new StringTask(from, mid), new StringTask(mid, to));
+            }
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private final class ClassTask extends RecursiveAction {
+        private final int from, to;
+
+        ClassTask(int from, int to) {
+            this.from = from;
+            this.to   = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= CLASS_THRESHOLD) {
+                Cursor cursor = new Cursor(0);
+                for (int i = from; i < to; i++) {
+                    classes[i] = hashClass(i, cursor);
+                }
+            } else {
+                int mid = (from + to) >>> 1;
+                invokeAll(new ClassTask(from, mid), new ClassTask(mid, to));
+            }
+        }
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Proto4j
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.proto4j.dx.diff; //@date 18.10.2026
+
+import com.android.dex.Dex;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * The classes that were added, removed or changed between two dex-files.
+ * Every class is reduced to a fingerprint of its definition, members, code
+ * items, annotations and static values, in which all referenced ids are
+ * replaced by fingerprints of the names they resolve to. Two classes are
+ * therefore equal even if the ids of the dex-files are numbered
+ * differently, for instance because other classes were added. Changes to
+ * debug information (line numbers, local variable names) are ignored.
+ * <pre>
+ * DexDiff diff = DexDiff.compare(oldDex, newDex);
+ * for (String descriptor : diff.getChangedClasses()) {
+ *     System.out.println("changed: " + descriptor);
+ * }
+ * </pre>
+ * Both dex-files are fingerprinted in parallel on a {@link ForkJoinPool}.
+ */
+public final class DexDiff {
+
+    /**
+     * Compares the given dex-files on the common <code>ForkJoinPool</code>.
+     *
+     * @param oldDex the previous dex-file
+     * @param newDex the current dex-file
+     * @return the differences between both files
+     */
+    public static DexDiff compare(Dex oldDex, Dex newDex) {
+        return compare(oldDex, newDex, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Compares the given dex-files on the provided pool.
+     *
+     * @param oldDex the previous dex-file
+     * @param newDex the current dex-file
+     * @param pool the pool to compute the fingerprints on
+     * @return the differences between both files
+     */
+    public static DexDiff compare(Dex oldDex, Dex newDex, ForkJoinPool pool) {
+        Objects.requireNonNull(oldDex, "oldDex");
+        Objects.requireNonNull(newDex, "newDex");
+        Objects.requireNonNull(pool, "pool");
+
+        ClassHasher        oldClasses = new ClassHasher(oldDex);
+        ClassHasher        newClasses = new ClassHasher(newDex);
+        ForkJoinTask<Void> oldTask    = pool.submit(oldClasses.hashAll());
+        ForkJoinTask<Void> newTask    = pool.submit(newClasses.hashAll());
+        oldTask.join();
+        newTask.join();
+
+        Map<String, Long> previous = new HashMap<>(oldClasses.getClassCount() * 2);
+        for (int i = 0; i < oldClasses.getClassCount(); i++) {
+            previous.put(oldClasses.getDescriptor(i), oldClasses.getHash(i));
+        }
+
+        List<String> added     = new ArrayList<>();
+        List<String> changed   = new ArrayList<>();
+        int          unchanged = 0;
+        for (int i = 0; i < newClasses.getClassCount(); i++) {
+            String descriptor = newClasses.getDescriptor(i);
+            Long   hash       = previous.remove(descriptor);
+            if (hash == null) {
+                added.add(descriptor);
+            } else if (hash != newClasses.getHash(i)) {
+                changed.add(descriptor);
+            } else {
+                unchanged++;
+            }
+        }
+        List<String> removed = new ArrayList<>(previous.keySet());
+
+        Collections.sort(added);
+        Collections.sort(removed);
+        Collections.sort(changed);
+        return new DexDiff(added, removed, changed, unchanged);
+    }
+
+    private final List<String> added;
+    private final List<String> removed;
+    private final List<String> changed;
+    private final int          unchanged;
+
+    private DexDiff(List<String> added, List<String> removed, List<String> changed, int unchanged) {
+        this.added     = Collections.unmodifiableList(added);
+        this.removed   = Collections.unmodifiableList(removed);
+        this.changed   = Collections.unmodifiableList(changed);
+        this.unchanged = unchanged;
+    }
+
+    /**
+     * @return the descriptors of all classes only present in the current
+     *         dex-file, sorted by name
+     */
+    public List<String> getAddedClasses() {
+        return added;
+    }
+
+    /**
+     * @return the descriptors of all classes only present in the previous
+     *         dex-file, sorted by name
+     */
+    public List<String> getRemovedClasses() {
+        return removed;
+    }
+
+    /**
+     * @return the descriptors of all classes present in both dex-files
+     *         with different content, sorted by name
+     */
+    public List<String> getChangedClasses() {
+        return changed;
+    }
+
+    /**
+     * @return the number of classes present in both dex-files with the same
+     *         content
+     */
+    public int getUnchangedCount() {
+        return unchanged;
+    }
+
+    /**
+     * @return <code>true</code> if both dex-files contain the same classes
+     */
+    public boolean isEmpty() {
+        return added.isEmpty() && removed.isEmpty() && changed.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "DexDiff{added=" + added.size() + ", removed=" + removed.size()
+                + ", changed=" + changed.size() + ", unchanged=" + unchanged + "}";
+    }
+}
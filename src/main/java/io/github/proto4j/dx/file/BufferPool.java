@@ -0,0 +1,313 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Proto4j
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.proto4j.dx.file; //@date 18.10.2026
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A thread-safe pool of byte buffers grouped into power-of-two size classes.
+ * Both {@link DexInputStream} and {@link DexOutputStream} acquire their
+ * working buffers from a pool, so that steady-state conversion reuses the
+ * same arrays instead of allocating new ones for every stream or entry.
+ * <p>
+ * Released buffers are only retained while the total amount of pooled
+ * memory stays below {@link #getMaxRetainedBytes()}; everything else is left
+ * to the garbage collector. Buffers larger than the biggest size class are
+ * never pooled.
+ * <pre>
+ * BufferPool pool = DexFactory.getDefault().getBufferPool();
+ *
+ * byte[] buf = pool.acquire(8192);
+ * try {
+ *     // use at least 8192 bytes of buf
+ * } finally {
+ *     pool.release(buf);
+ * }
+ * </pre>
+ *
+ * @see DexInputStream
+ * @see DexOutputStream
+ */
+public final class BufferPool {
+
+    /**
+     * The smallest size class (4 KiB) as a power of two.
+     */
+    public static final int MIN_SIZE_SHIFT = 12;
+
+    /**
+     * The largest size class (64 MiB) as a power of two.
+     */
+    public static final int MAX_SIZE_SHIFT = 26;
+
+    /**
+     * The default amount of memory a pool retains. (64 MiB)
+     */
+    public static final long DEFAULT_MAX_RETAINED_BYTES = 64L << 20;
+
+    /**
+     * The shared pool instance. (lazily initialized)
+     */
+    private static volatile BufferPool defaultPool;
+
+    /**
+     * Returns the shared pool that is used when no pool has been specified
+     * explicitly.
+     *
+     * @return the shared pool instance
+     */
+    public static BufferPool getDefault() {
+        if (defaultPool == null) {
+            synchronized (BufferPool.class) {
+                if (defaultPool == null) {
+                    defaultPool = new BufferPool(DEFAULT_MAX_RETAINED_BYTES);
+                }
+            }
+        }
+        return defaultPool;
+    }
+
+    /**
+     * Pooled heap arrays, one queue per size class.
+     */
+    private final Queue<byte[]>[] heapBuffers;
+
+    /**
+     * Pooled off-heap buffers, one queue per size class.
+     */
+    private final Queue<ByteBuffer>[] directBuffers;
+
+    /**
+     * The maximum amount of memory kept in this pool.
+     */
+    private final long maxRetainedBytes;
+
+    private final AtomicLong retainedBytes = new AtomicLong();
+    private final AtomicLong hits          = new AtomicLong();
+    private final AtomicLong misses        = new AtomicLong();
+    private final AtomicLong discarded     = new AtomicLong();
+
+    /**
+     * Creates a new pool that retains at most the given amount of memory.
+     *
+     * @param maxRetainedBytes the retention bound in bytes, <code>0</code>
+     *         disables pooling
+     * @throws IllegalArgumentException if the bound is negative
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public BufferPool(long maxRetainedBytes) {
+        if (maxRetainedBytes < 0) {
+            throw new IllegalArgumentException("Illegal negative number");
+        }
+        this.maxRetainedBytes = maxRetainedBytes;
+
+        int classes = MAX_SIZE_SHIFT - MIN_SIZE_SHIFT + 1;
+        this.heapBuffers   = new Queue[classes];
+        this.directBuffers = new Queue[classes];
+        for (int i = 0; i < classes; i++) {
+            heapBuffers[i]   = new ConcurrentLinkedQueue<>();
+            directBuffers[i] = new ConcurrentLinkedQueue<>();
+        }
+    }
+
+    /**
+     * Returns a heap buffer with at least the given capacity. The content of
+     * the returned array is undefined.
+     *
+     * @param minCapacity the minimum buffer size
+     * @return a pooled or newly allocated array
+     */
+    public byte[] acquire(int minCapacity) {
+        int sizeClass = sizeClassOf(minCapacity);
+        if (sizeClass < 0) {
+            misses.incrementAndGet();
+            return new byte[minCapacity];
+        }
+
+        byte[] buf = heapBuffers[sizeClass].poll();
+        if (buf == null) {
+            misses.incrementAndGet();
+            return new byte[1 << (sizeClass + MIN_SIZE_SHIFT)];
+        }
+        hits.incrementAndGet();
+        retainedBytes.addAndGet(-buf.length);
+        return buf;
+    }
+
+    /**
+     * Returns a heap buffer to this pool. Arrays that do not match a size
+     * class or would exceed the retention bound are discarded.
+     *
+     * @param buf the buffer to release, may be <code>null</code>
+     */
+    public void release(byte[] buf) {
+        if (buf != null) {
+            int sizeClass = exactSizeClassOf(buf.length);
+            if (sizeClass < 0) {
+                discarded.incrementAndGet();
+            } else if (reserve(buf.length)) {
+                heapBuffers[sizeClass].offer(buf);
+            }
+        }
+    }
+
+    /**
+     * Returns an off-heap buffer with at least the given capacity. The
+     * buffer is cleared before it is returned.
+     *
+     * @param minCapacity the minimum buffer size
+     * @return a pooled or newly allocated direct buffer
+     */
+    public ByteBuffer acquireDirect(int minCapacity) {
+        int sizeClass = sizeClassOf(minCapacity);
+        if (sizeClass < 0) {
+            misses.incrementAndGet();
+            return ByteBuffer.allocateDirect(minCapacity);
+        }
+
+        ByteBuffer buf = directBuffers[sizeClass].poll();
+        if (buf == null) {
+            misses.incrementAndGet();
+            return ByteBuffer.allocateDirect(1 << (sizeClass + MIN_SIZE_SHIFT));
+        }
+        hits.incrementAndGet();
+        retainedBytes.addAndGet(-buf.capacity());
+        buf.clear();
+        return buf;
+    }
+
+    /**
+     * Returns an off-heap buffer to this pool.
+     *
+     * @param buf the buffer to release, may be <code>null</code>
+     */
+    public void release(ByteBuffer buf) {
+        if (buf != null && buf.isDirect()) {
+            int sizeClass = exactSizeClassOf(buf.capacity());
+            if (sizeClass < 0) {
+                discarded.incrementAndGet();
+            } else if (reserve(buf.capacity())) {
+                directBuffers[sizeClass].offer(buf);
+            }
+        }
+    }
+
+    /**
+     * Drops all pooled buffers.
+     */
+    public void clear() {
+        for (int i = 0; i < heapBuffers.length; i++) {
+            byte[] buf;
+            while ((buf = heapBuffers[i].poll()) != null) {
+                retainedBytes.addAndGet(-buf.length);
+            }
+            ByteBuffer direct;
+            while ((direct = directBuffers[i].poll()) != null) {
+                retainedBytes.addAndGet(-direct.capacity());
+            }
+        }
+    }
+
+    /**
+     * @return the retention bound of this pool in bytes
+     */
+    public long getMaxRetainedBytes() {
+        return maxRetainedBytes;
+    }
+
+    /**
+     * @return the amount of memory currently kept in this pool
+     */
+    public long getRetainedBytes() {
+        return retainedBytes.get();
+    }
+
+    /**
+     * @return how many acquisitions have been served from the pool
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * @return how many acquisitions had to allocate a new buffer
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * @return how many released buffers were dropped instead of pooled
+     */
+    public long getDiscardCount() {
+        return discarded.get();
+    }
+
+    @Override
+    public String toString() {
+        return "BufferPool{retained=" + getRetainedBytes()
+                + ", max=" + maxRetainedBytes
+                + ", hits=" + getHitCount()
+                + ", misses=" + getMissCount()
+                + ", discarded=" + getDiscardCount() + "}";
+    }
+
+    private boolean reserve(int size) {
+        long current;
+        do {
+            current = retainedBytes.get();
+            if (current + size > maxRetainedBytes) {
+                discarded.incrementAndGet();
+                return false;
+            }
+        } while (!retainedBytes.compareAndSet(current, current + size));
+        return true;
+    }
+
+    private static int sizeClassOf(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Illegal negative number");
+        }
+        if (capacity > 1 << MAX_SIZE_SHIFT) {
+            return -1;
+        }
+        int shift = capacity <= 1 ? 0 : 32 - Integer.numberOfLeadingZeros(capacity - 1);
+        return Math.max(shift, MIN_SIZE_SHIFT) - MIN_SIZE_SHIFT;
+    }
+
+    private static int exactSizeClassOf(int capacity) {
+        if (Integer.bitCount(capacity) != 1) {
+            return -1;
+        }
+        int shift = Integer.numberOfTrailingZeros(capacity);
+        if (shift < MIN_SIZE_SHIFT || shift > MAX_SIZE_SHIFT) {
+            return -1;
+        }
+        return shift - MIN_SIZE_SHIFT;
+    }
+}
@@ -0,0 +1,244 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Proto4j
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.proto4j.dx.file; //@date 18.10.2026
+
+import com.android.dex.Dex;
+
+import java.io.IOException;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A cache of loaded {@link Dex} objects keyed by file identity. A cached
+ * entry is reused as long as the file's size and modification time are
+ * unchanged, so repeated requests for the same file skip reading and
+ * parsing entirely.
+ * <p>
+ * The cache is bounded by the total size of all cached dex-files and evicts
+ * the least recently used entries first. Entries are held through soft
+ * references, which allows the garbage collector to reclaim them under
+ * memory pressure before the bound is reached.
+ * <pre>
+ * Dex dex = DexFactory.getDefault().openDex(Paths.get("classes.dex"));
+ * </pre>
+ * Note that cached <code>Dex</code> objects are shared between all callers
+ * and must not be modified.
+ *
+ * @see io.github.proto4j.dx.DexFactory#openDex(Path)
+ */
+public final class DexCache {
+
+    /**
+     * The default cache bound. (256 MiB)
+     */
+    public static final long DEFAULT_MAX_BYTES = 256L << 20;
+
+    /**
+     * All entries in access order.
+     */
+    private final LinkedHashMap<Path, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * Receives entries whose value has been reclaimed by the garbage
+     * collector.
+     */
+    private final ReferenceQueue<Dex> reclaimed = new ReferenceQueue<>();
+
+    private final long maxBytes;
+
+    private long cachedBytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * Creates a new cache bounded by the given total size.
+     *
+     * @param maxBytes the maximum size of all cached dex-files
+     * @throws IllegalArgumentException if the bound is negative
+     */
+    public DexCache(long maxBytes) {
+        if (maxBytes < 0) {
+            throw new IllegalArgumentException("Illegal negative number");
+        }
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Returns the cached dex-file for the given path, or loads it if it is
+     * not cached or has changed since it was cached.
+     *
+     * @param file the dex-file to load
+     * @return the loaded dex-file
+     * @throws IOException if the file could not be read or is malformed
+     */
+    public Dex get(Path file) throws IOException {
+        Objects.requireNonNull(file, "file");
+
+        Path                key        = file.toAbsolutePath().normalize();
+        BasicFileAttributes attributes = Files.readAttributes(key, BasicFileAttributes.class);
+        long                size       = attributes.size();
+        long                modified   = attributes.lastModifiedTime().toMillis();
+
+        synchronized (this) {
+            expungeReclaimed();
+            Entry entry = entries.get(key);
+            if (entry != null && entry.size == size && entry.modified == modified) {
+                Dex dex = entry.get();
+                if (dex != null) {
+                    hits++;
+                    return dex;
+                }
+            }
+            misses++;
+        }
+
+        // Loading happens outside the lock, concurrent misses for the same
+        // file may both load it.
+        Dex dex = new Dex(Files.readAllBytes(key));
+        if (dex.getLength() <= maxBytes) {
+            synchronized (this) {
+                remove(entries.remove(key));
+                entries.put(key, new Entry(key, size, modified, dex, reclaimed));
+                cachedBytes += dex.getLength();
+                evict();
+            }
+        }
+        return dex;
+    }
+
+    /**
+     * Removes all entries from this cache.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        cachedBytes = 0;
+        expungeReclaimed();
+    }
+
+    /**
+     * @return the maximum size of all cached dex-files
+     */
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * @return the size of all cached dex-files
+     */
+    public synchronized long getCachedBytes() {
+        expungeReclaimed();
+        return cachedBytes;
+    }
+
+    /**
+     * @return the amount of cached dex-files
+     */
+    public synchronized int size() {
+        expungeReclaimed();
+        return entries.size();
+    }
+
+    /**
+     * @return how many requests were served from this cache
+     */
+    public synchronized long getHitCount() {
+        return hits;
+    }
+
+    /**
+     * @return how many requests had to load the dex-file
+     */
+    public synchronized long getMissCount() {
+        return misses;
+    }
+
+    /**
+     * @return how many entries were evicted to stay within the bound
+     */
+    public synchronized long getEvictionCount() {
+        return evictions;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "DexCache{entries=" + entries.size()
+                + ", bytes=" + cachedBytes
+                + ", max=" + maxBytes
+                + ", hits=" + hits
+                + ", misses=" + misses
+                + ", evictions=" + evictions + "}";
+    }
+
+    private void evict() {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (cachedBytes > maxBytes && iterator.hasNext()) {
+            Entry eldest = iterator.next();
+            iterator.remove();
+            cachedBytes -= eldest.length;
+            evictions++;
+        }
+    }
+
+    private void expungeReclaimed() {
+        Object reference;
+        while ((reference = reclaimed.poll()) != null) {
+            Entry entry = (Entry) reference;
+            // Only drop the entry if it has not been replaced yet
+            if (entries.remove(entry.key, entry)) {
+                remove(entry);
+            }
+        }
+    }
+
+    private void remove(Entry entry) {
+        if (entry != null) {
+            cachedBytes -= entry.length;
+        }
+    }
+
+    private static final class Entry extends SoftReference<Dex> {
+
+        final Path key;
+        final long size;
+        final long modified;
+        final int  length;
+
+        Entry(Path key, long size, long modified, Dex dex, ReferenceQueue<Dex> queue) {
+            super(dex, queue);
+            this.key      = key;
+            this.size     = size;
+            this.modified = modified;
+            this.length   = dex.getLength();
+        }
+    }
+}
@@ -26,9 +26,9 @@ package io.github.proto4j.dx.file; //@date 28.01.2023
 
 import com.android.dex.Dex;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.ReadableByteChannel;
 import java.util.Objects;
 
 /**
@@ -53,13 +53,28 @@ public class DexInputStream extends InputStream {
     /**
      * Internal buffer that stores all bytes.
      */
-    private final ByteArrayOutputStream buffer;
+    private final PooledBuffer buffer;
+
+    /**
+     * Whether the buffer should be verified before it is converted.
+     */
+    private boolean verify = false;
 
     /**
      * Creates a new <code>DexInputStream</code> with no underlying source.
      */
     public DexInputStream() {
-        this.buffer = new ByteArrayOutputStream();
+        this(BufferPool.getDefault());
+    }
+
+    /**
+     * Creates a new <code>DexInputStream</code> with no underlying source
+     * that takes its internal buffer from the given pool.
+     *
+     * @param bufferPool the pool to use
+     */
+    public DexInputStream(BufferPool bufferPool) {
+        this.buffer = new PooledBuffer(Objects.requireNonNull(bufferPool, "bufferPool"));
     }
 
     /**
@@ -72,7 +87,21 @@ public class DexInputStream extends InputStream {
      * @throws IOException if an I/O Error occurs
      */
     public DexInputStream(InputStream source, boolean close) throws IOException {
-        this.buffer = new ByteArrayOutputStream();
+        this(source, close, BufferPool.getDefault());
+    }
+
+    /**
+     * Creates a new <code>DexInputStream</code> and reads all bytes from the
+     * given source stream into a buffer taken from the given pool.
+     *
+     * @param source the source to read from
+     * @param close whether the provided <code>InputStream</code> should be
+     *         closed afterwards
+     * @param bufferPool the pool to use
+     * @throws IOException if an I/O Error occurs
+     */
+    public DexInputStream(InputStream source, boolean close, BufferPool bufferPool) throws IOException {
+        this(bufferPool);
         if (source != null) {
             read(source, close);
         }
@@ -113,10 +142,30 @@ public class DexInputStream extends InputStream {
             buffer.reset();
         }
 
-        inputStream.transferTo(buffer);
-        if (close) {
-            inputStream.close();
+        try {
+            buffer.readFrom(inputStream);
+        } finally {
+            if (close) {
+                inputStream.close();
+            }
+        }
+    }
+
+    /**
+     * Reads the data from the given channel and writes it to the internal
+     * buffer. The data is staged in a pooled off-heap buffer. This action
+     * won't close the provided channel.
+     *
+     * @param channel the source to read from
+     * @throws IOException if an I/O Error occurs
+     */
+    public void read(ReadableByteChannel channel) throws IOException {
+        Objects.requireNonNull(channel, "source");
+
+        if (buffer.size() != 0) {
+            buffer.reset();
         }
+        buffer.readFrom(channel);
     }
 
     /**
@@ -141,10 +190,9 @@ public class DexInputStream extends InputStream {
             throw new IllegalArgumentException("Illegal negative number");
         }
 
-        byte[] buf    = buffer.toByteArray();
-        int    length = Math.min(off + len, buf.length);
+        int length = Math.min(len, buffer.size());
 
-        System.arraycopy(buf, 0, b, off, length);
+        System.arraycopy(buffer.array(), 0, b, off, length);
         return length;
     }
 
@@ -166,7 +214,60 @@ public class DexInputStream extends InputStream {
     }
 
     /**
-     * Converts the internal buffer into a {@link Dex} object.
+     * Resets the internal buffer and returns its memory to the pool.
+     */
+    @Override
+    public void close() {
+        buffer.close();
+    }
+
+    /**
+     * Streams the classes of the internal buffer to the given visitor
+     * without copying the buffer or creating a {@link Dex} object.
+     *
+     * @param visitor the visitor to use
+     * @throws IOException if the stored buffer contains malformed data
+     * @see DexSectionReader
+     */
+    public void accept(DexVisitor visitor) throws IOException {
+        if (buffer.size() == 0) {
+            throw new IOException("Empty source");
+        }
+        if (verify) {
+            verify();
+        }
+        new DexSectionReader(buffer.array(), buffer.size()).accept(visitor);
+    }
+
+    /**
+     * Sets whether the internal buffer should be checked with the
+     * {@link DexVerifier} before it is converted by {@link #toDex()}.
+     * Verification is disabled by default and should be enabled for
+     * untrusted sources only.
+     *
+     * @param verify <code>true</code> if the data should be verified
+     */
+    public void setVerify(boolean verify) {
+        this.verify = verify;
+    }
+
+    /**
+     * Verifies the header, checksum, signature and section bounds of the
+     * internal buffer.
+     *
+     * @throws IOException if the stored buffer contains malformed data
+     * @see DexVerifier
+     */
+    public void verify() throws IOException {
+        if (buffer.size() == 0) {
+            throw new IOException("Empty source");
+        }
+        DexVerifier.verify(buffer.array(), buffer.size());
+    }
+
+    /**
+     * Converts the internal buffer into a {@link Dex} object. The buffer
+     * will be verified before if {@link #setVerify(boolean)} was enabled.
      *
      * @return the newly created object
      * @throws IOException if the stored buffer contains malformed data
@@ -175,6 +276,9 @@ public class DexInputStream extends InputStream {
         if (buffer.size() == 0) {
             throw new IOException("Empty source");
         } else {
+            if (verify) {
+                verify();
+            }
             return new Dex(buffer.toByteArray());
         }
     }
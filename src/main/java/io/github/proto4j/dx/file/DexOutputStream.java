@@ -24,22 +24,34 @@
 
 package io.github.proto4j.dx.file;//@date 28.01.2023
 
+import com.android.dex.Dex;
+import com.android.dex.util.ExceptionWithContext;
+import com.android.dx.cf.code.SimException;
 import com.android.dx.cf.direct.DirectClassFile;
 import com.android.dx.cf.iface.ParseException;
 import com.android.dx.command.dexer.DxContext;
-import com.android.dx.dex.DexOptions;
 import com.android.dx.dex.cf.CfOptions;
 import com.android.dx.dex.cf.CfTranslator;
 import com.android.dx.dex.file.ClassDefItem;
 import com.android.dx.dex.file.DexFile;
+import com.android.dx.merge.CollisionPolicy;
+import com.android.dx.merge.DexMerger;
 import io.github.proto4j.dx.ClassParser;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.util.Arrays;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 
@@ -60,15 +72,42 @@ import java.util.zip.ZipInputStream;
  *     dos.transferTo(new FileOutputStream("classes.dex"));
  * }
  * </pre>
+ * <p>
+ * By default, all translated classes are kept in memory until the dex-file
+ * is written. For very large inputs a spill threshold can be set with
+ * {@link #setSpillThreshold(long)}: once the amount of class data written
+ * since the last spill exceeds the threshold, the classes translated so far
+ * are written to a temporary dex-file and released from memory. All
+ * temporary files are merged into the final output and deleted when this
+ * stream is closed. Note that spilling only bounds the memory used while
+ * translating: the merge loads all temporary files at once, so writing the
+ * output still needs memory for the complete dex-file.
+ * <p>
+ * The entry-based methods {@link #putNextClass(String)}, {@link #write(byte[])}
+ * and {@link #closeClass()} must be used by a single thread only. Producers
+ * on multiple threads can use {@link #addClass(String, byte[])} instead,
+ * which translates the given class on the calling thread and only
+ * coordinates adding the result to the dex-file. Classes are always added in
+ * the order the calls were started, and each call returns once its class
+ * has been added.
+ * <p>
+ * Classes that cannot be parsed or translated are skipped and recorded by
+ * the {@link DiagnosticCollector} returned by {@link #getDiagnostics()}.
+ * A collector with the {@link DiagnosticCollector.Policy#FAIL_FAST} policy
+ * can be set to abort on the first failure instead. Only the
+ * <code>ParseException</code> and <code>SimException</code> dx raises for
+ * malformed or unverifiable class data are recorded; any other error is
+ * thrown to the caller.
  *
  * @see DexInputStream
  */
 public class DexOutputStream extends OutputStream {
 
     /**
-     * The file that will store all internal class entries.
+     * The file that will store all internal class entries. It will be
+     * replaced by an empty file whenever its content is spilled to disk.
      */
-    private final DexFile file;
+    private volatile DexFile file;
 
     /**
      * The Java bytecode parser.
@@ -78,7 +117,12 @@ public class DexOutputStream extends OutputStream {
     /**
      * The context to use when translating.
      */
-    private final DxContext dxContext;
+    private final TranslationContext context;
+
+    /**
+     * The pool to take temporary buffers from.
+     */
+    private final BufferPool bufferPool;
 
     /**
      * The entry's name.
@@ -95,6 +139,65 @@ public class DexOutputStream extends OutputStream {
      */
     private boolean entrySet = false;
 
+    /**
+     * The amount of class data after which the current file is spilled to
+     * disk, or <code>0</code> if spilling is disabled.
+     */
+    private long spillThreshold = 0;
+
+    /**
+     * The directory to create temporary dex-files in, or <code>null</code>
+     * to use the default temporary-file directory.
+     */
+    private Path spillDirectory;
+
+    /**
+     * The amount of class data added to the current file.
+     */
+    private long pendingBytes = 0;
+
+    /**
+     * The default translation options for {@link #addClass(String, byte[])}
+     * and {@link #putNextClass(String)}.
+     */
+    private volatile CfOptions defaultCfOptions;
+
+    /**
+     * The sequence number handed to the next translated class.
+     */
+    private final AtomicLong nextTicket = new AtomicLong();
+
+    /**
+     * The sequence number of the next class to add to the file.
+     */
+    private long nextCommit = 0;
+
+    /**
+     * Translated classes waiting for their predecessors to be added.
+     */
+    private final Map<Long, Translation> pendingCommits = new HashMap<>();
+
+    /**
+     * Guards all modifications of the current file.
+     */
+    private final Object commitLock = new Object();
+
+    /**
+     * Held shared while translating against the current file, and
+     * exclusively while the current file is spilled.
+     */
+    private final ReadWriteLock fileLock = new ReentrantReadWriteLock();
+
+    /**
+     * Records all classes that could not be translated.
+     */
+    private volatile DiagnosticCollector diagnostics = new DiagnosticCollector();
+
+    /**
+     * All temporary dex-files that have been written so far.
+     */
+    private final List<Path> spilledFiles = new ArrayList<>();
+
     /**
      * Creates a new <code>DexOutputStream</code> with the given dex-file and
      * class parser.
@@ -103,9 +206,40 @@ public class DexOutputStream extends OutputStream {
      * @param classParser the parser to use
      */
     public DexOutputStream(DexFile file, ClassParser classParser) {
-        this.file        = file;
-        this.classParser = classParser;
-        this.dxContext   = new DxContext();
+        this(file, classParser, BufferPool.getDefault());
+    }
+
+    /**
+     * Creates a new <code>DexOutputStream</code> with the given dex-file,
+     * class parser and buffer pool.
+     *
+     * @param file the internal file to use
+     * @param classParser the parser to use
+     * @param bufferPool the pool to take temporary buffers from
+     */
+    public DexOutputStream(DexFile file, ClassParser classParser, BufferPool bufferPool) {
+        this(file, classParser, bufferPool, new TranslationContext(), new CfOptions());
+    }
+
+    /**
+     * Creates a new <code>DexOutputStream</code> with the given dex-file,
+     * class parser, buffer pool and translation state. The context is
+     * released when this stream is closed.
+     *
+     * @param file the internal file to use
+     * @param classParser the parser to use
+     * @param bufferPool the pool to take temporary buffers from
+     * @param context the context to translate classes with
+     * @param defaultCfOptions the translation options used when none are
+     *         given, which must not be modified afterwards
+     */
+    public DexOutputStream(DexFile file, ClassParser classParser, BufferPool bufferPool,
+                           TranslationContext context, CfOptions defaultCfOptions) {
+        this.file             = file;
+        this.classParser      = classParser;
+        this.bufferPool       = Objects.requireNonNull(bufferPool, "bufferPool");
+        this.context          = Objects.requireNonNull(context, "context");
+        this.defaultCfOptions = Objects.requireNonNull(defaultCfOptions, "defaultCfOptions");
     }
 
     /**
@@ -143,37 +277,143 @@ public class DexOutputStream extends OutputStream {
     }
 
     /**
-     * Writes the provided class data.
+     * Writes the provided class data. The array is passed on to the class
+     * parser without copying and must not be modified until this method
+     * returns.
      *
      * @param b the data.
      * @param off the start offset in the data.
      * @param len the number of bytes to write.
      * @throws IllegalStateException if {@link #putNextClass(String)} has not
      *                               been called yet
+     * @throws UncheckedIOException  if the spill threshold was reached and
+     *                               the current file could not be written
+     * @throws ExceptionWithContext  if the class could not be translated and
+     *                               the diagnostics policy is to fail fast,
+     *                               or if dx failed for any other reason
      */
     @Override
     public void write(byte[] b, int off, int len) {
-        byte[] data = Arrays.copyOfRange(b, off, off + len);
-
-        if (data.length == 0) {
+        Objects.checkFromIndexSize(off, len, b.length);
+        if (len == 0) {
             return;
         }
 
         if (filename == null || cfOptions == null || !entrySet) {
             throw new IllegalStateException("write() call before putNextClass()");
         }
+        addClass(filename, b, off, len, cfOptions);
+    }
+
+    /**
+     * Translates and adds the given class with the default translation
+     * options. This method can be called from multiple threads at once.
+     *
+     * @param name the class filename <b>with</b> .class at the end
+     * @param bytes the class data, which must not be modified until this
+     *         method returns
+     * @throws UncheckedIOException if the spill threshold was reached and
+     *                              the current file could not be written
+     * @throws ExceptionWithContext if the class could not be translated and
+     *                              the diagnostics policy is to fail fast,
+     *                              or if dx failed for any other reason
+     * @see #addClass(String, byte[], CfOptions)
+     */
+    public void addClass(String name, byte[] bytes) {
+        addClass(name, bytes, null);
+    }
+
+    /**
+     * Translates and adds the given class. This method can be called from
+     * multiple threads at once: the translation runs on the calling thread
+     * and only adding the translated class to the dex-file is coordinated.
+     * Classes are added in the order the calls were started, so the output
+     * does not depend on thread scheduling. This method returns once the
+     * class has been added, which includes waiting for all calls that were
+     * started earlier.
+     *
+     * @param name the class filename <b>with</b> .class at the end
+     * @param bytes the class data, which must not be modified until this
+     *         method returns
+     * @param options the translation options to use, or <code>null</code>
+     *         for the default options
+     * @throws UncheckedIOException if the spill threshold was reached and
+     *                              the current file could not be written
+     * @throws ExceptionWithContext if the class could not be translated and
+     *                              the diagnostics policy is to fail fast,
+     *                              or if dx failed for any other reason
+     */
+    public void addClass(String name, byte[] bytes, CfOptions options) {
+        Objects.requireNonNull(bytes, "bytes");
+        addClass(name, bytes, 0, bytes.length, options);
+    }
+
+    private void addClass(String name, byte[] bytes, int offset, int length, CfOptions options) {
+        Objects.requireNonNull(name, "name");
 
+        Translation translation = new Translation(nextTicket.getAndIncrement(), name, bytes, offset, length,
+                                                  options == null ? defaultCfOptions : options);
+        fileLock.readLock().lock();
         try {
-            DirectClassFile dcf = classParser.read(filename, data);
-            ClassDefItem cdi = CfTranslator.translate(
-                    dxContext, dcf, data, cfOptions, file.getDexOptions(), file);
-
-            file.add(cdi);
-        } catch (ParseException e) {
-            DexOptions dexOptions = file.getDexOptions();
-            dexOptions.err.println("Error processing: " + e);
+            translation.translate(file);
         } finally {
-            Arrays.fill(data, (byte) 0);
+            fileLock.readLock().unlock();
+            commit(translation);
+        }
+    }
+
+    /**
+     * Adds all translations that are next in order to the current file and
+     * waits until the given translation has been added.
+     */
+    private void commit(Translation translation) {
+        synchronized (commitLock) {
+            pendingCommits.put(translation.ticket, translation);
+
+            Translation next;
+            while ((next = pendingCommits.remove(nextCommit)) != null) {
+                nextCommit++;
+                try {
+                    // Translations interned their references into the file
+                    // they were started with, which may have been spilled
+                    if (!next.failed && next.target != file) {
+                        fileLock.readLock().lock();
+                        try {
+                            next.translate(file);
+                        } finally {
+                            fileLock.readLock().unlock();
+                        }
+                    }
+                    if (next.result != null) {
+                        file.add(next.result);
+                        pendingBytes += next.length;
+                        if (spillThreshold > 0 && pendingBytes >= spillThreshold) {
+                            spill();
+                        }
+                    }
+                } catch (IOException e) {
+                    next.error = new UncheckedIOException("Could not spill dex-file", e);
+                } catch (RuntimeException e) {
+                    next.error = e;
+                }
+            }
+            commitLock.notifyAll();
+
+            // The class data may be translated again until it is added
+            boolean interrupted = false;
+            while (nextCommit <= translation.ticket) {
+                try {
+                    commitLock.wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (translation.error != null) {
+            throw translation.error;
         }
     }
 
@@ -186,21 +426,19 @@ public class DexOutputStream extends OutputStream {
     public void writeAll(ZipInputStream inputStream) throws IOException {
         Objects.requireNonNull(inputStream);
 
-        ZipEntry entry = null;
-        while ((entry = inputStream.getNextEntry()) != null) {
-            if (entry.isDirectory() || !entry.getName().endsWith(".class")) {
-                continue;
-            }
-
-            try (ByteArrayOutputStream bos = new ByteArrayOutputStream()) {
-                int    len;
-                byte[] buf = new byte[2048];
-                while ((len = inputStream.read(buf)) > 0) {
-                    bos.write(buf, 0, len);
+        // One pooled buffer is reused for all entries
+        try (PooledBuffer buffer = new PooledBuffer(bufferPool)) {
+            ZipEntry entry = null;
+            while ((entry = inputStream.getNextEntry()) != null) {
+                if (entry.isDirectory() || !entry.getName().endsWith(".class")) {
+                    continue;
                 }
 
+                buffer.reset();
+                buffer.readFrom(inputStream);
+
                 putNextClass(entry.getName());
-                write(bos.toByteArray());
+                write(buffer.array(), 0, buffer.size());
                 closeClass();
             }
         }
@@ -213,7 +451,13 @@ public class DexOutputStream extends OutputStream {
      * @throws IOException if an I/O Error occurs
      */
     public void transferTo(OutputStream outputStream) throws IOException {
-        file.writeTo(outputStream, null, false);
+        synchronized (commitLock) {
+            if (spilledFiles.isEmpty()) {
+                file.writeTo(outputStream, null, false);
+            } else {
+                merge().writeTo(outputStream);
+            }
+        }
     }
 
     /**
@@ -222,7 +466,7 @@ public class DexOutputStream extends OutputStream {
      * @param filename the filename to use
      */
     public void putNextClass(String filename) {
-        putNextClass(filename, this.cfOptions == null ? new CfOptions() : null);
+        putNextClass(filename, this.cfOptions == null ? defaultCfOptions : null);
     }
 
     /**
@@ -256,13 +500,257 @@ public class DexOutputStream extends OutputStream {
     /**
      * Converts the internal dex-file into a byte array.
      *
-     * @return the raw dex-file data
+     * @return the raw dex-file data, or an empty array if the spilled files
+     *         could not be merged
+     * @see #toDexBytes()
      */
     public byte[] toByteArray() {
         try {
-            return file.toDex(null, false);
+            return toDexBytes();
         } catch (IOException e) {
             return new byte[0];
         }
     }
+
+    /**
+     * Converts the internal dex-file into a byte array. Other than
+     * {@link #toByteArray()}, this method reports a failed merge of the
+     * spilled files instead of returning an empty array.
+     *
+     * @return the raw dex-file data
+     * @throws IOException if a spilled file could not be read
+     */
+    public byte[] toDexBytes() throws IOException {
+        synchronized (commitLock) {
+            if (spilledFiles.isEmpty()) {
+                return file.toDex(null, false);
+            }
+            return merge().getBytes();
+        }
+    }
+
+    /**
+     * Sets the amount of class data (in bytes) after which all classes
+     * translated so far are written to a temporary dex-file. Note that the
+     * memory used by translated classes is a multiple of their class data,
+     * so the threshold should be chosen well below the available heap.
+     * <p>
+     * The threshold bounds the memory used until the output is written
+     * only. {@link #toByteArray()}, {@link #toDexBytes()} and
+     * {@link #transferTo(OutputStream)} load all temporary files into memory
+     * to merge them, which needs about twice the size of the final
+     * dex-file.
+     *
+     * @param spillThreshold the threshold in bytes, <code>0</code> disables
+     *         spilling
+     * @throws IllegalArgumentException if the threshold is negative
+     */
+    public void setSpillThreshold(long spillThreshold) {
+        if (spillThreshold < 0) {
+            throw new IllegalArgumentException("Illegal negative number");
+        }
+        this.spillThreshold = spillThreshold;
+    }
+
+    /**
+     * Sets the directory temporary dex-files should be created in.
+     *
+     * @param spillDirectory the directory to use, or <code>null</code> for
+     *         the default temporary-file directory
+     */
+    public void setSpillDirectory(Path spillDirectory) {
+        this.spillDirectory = spillDirectory;
+    }
+
+    /**
+     * Sets the translation options used for classes that are added without
+     * explicit options. The options may be shared with other streams and
+     * must not be modified afterwards.
+     *
+     * @param defaultCfOptions the options to use
+     */
+    public void setDefaultCfOptions(CfOptions defaultCfOptions) {
+        this.defaultCfOptions = Objects.requireNonNull(defaultCfOptions, "defaultCfOptions");
+    }
+
+    /**
+     * Returns the collector that records all classes this stream failed to
+     * translate.
+     *
+     * @return the diagnostics of this stream
+     */
+    public DiagnosticCollector getDiagnostics() {
+        return diagnostics;
+    }
+
+    /**
+     * Sets the collector to record failed classes with. A collector may be
+     * shared by multiple streams.
+     *
+     * @param diagnostics the collector to use
+     */
+    public void setDiagnostics(DiagnosticCollector diagnostics) {
+        this.diagnostics = Objects.requireNonNull(diagnostics, "diagnostics");
+    }
+
+    /**
+     * Returns how many temporary dex-files have been written by this stream.
+     *
+     * @return the amount of spilled files
+     */
+    public int getSpillCount() {
+        synchronized (commitLock) {
+            return spilledFiles.size();
+        }
+    }
+
+    /**
+     * Deletes all temporary dex-files written by this stream and releases
+     * its translation context.
+     *
+     * @throws IOException if a file could not be deleted
+     */
+    @Override
+    public void close() throws IOException {
+        IOException error = null;
+        synchronized (commitLock) {
+            context.release();
+            for (Path spilled : spilledFiles) {
+                try {
+                    Files.deleteIfExists(spilled);
+                } catch (IOException e) {
+                    error = e;
+                }
+            }
+            spilledFiles.clear();
+        }
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    /**
+     * Writes the current file to a new temporary dex-file and replaces it
+     * with an empty one.
+     */
+    private void spill() throws IOException {
+        Path spilled = spillDirectory == null
+                ? Files.createTempFile("proto4j-dx", ".dex")
+                : Files.createTempFile(spillDirectory, "proto4j-dx", ".dex");
+
+        // Wait for all translations that still intern into the current file
+        fileLock.writeLock().lock();
+        try {
+            try (OutputStream outputStream = Files.newOutputStream(spilled)) {
+                file.writeTo(outputStream, null, false);
+            } catch (IOException | RuntimeException e) {
+                // The classes stay in the current file and are spilled again
+                try {
+                    Files.deleteIfExists(spilled);
+                } catch (IOException suppressed) {
+                    e.addSuppressed(suppressed);
+                }
+                throw e;
+            }
+            spilledFiles.add(spilled);
+            file = new DexFile(file.getDexOptions());
+        } finally {
+            fileLock.writeLock().unlock();
+        }
+        pendingBytes = 0;
+    }
+
+    /**
+     * Merges all spilled files and the current file into one dex-file.
+     */
+    private Dex merge() throws IOException {
+        List<Dex> parts = new ArrayList<>(spilledFiles.size() + 1);
+        for (Path spilled : spilledFiles) {
+            parts.add(new Dex(spilled.toFile()));
+        }
+        if (!file.isEmpty()) {
+            parts.add(new Dex(file.toDex(null, false)));
+        }
+
+        // The merger reports its progress on the context's output stream
+        DxContext mergeContext = new DxContext(OutputStream.nullOutputStream(), file.getDexOptions().err);
+        DexMerger merger       = new DexMerger(parts.toArray(new Dex[0]), CollisionPolicy.FAIL, mergeContext);
+        merger.setCompactWasteThreshold(0);
+        return merger.merge();
+    }
+
+    /**
+     * A single class passed to {@link #addClass(String, byte[], CfOptions)}.
+     */
+    private final class Translation {
+
+        final long      ticket;
+        final String    name;
+        final byte[]    bytes;
+        final int       offset;
+        final int       length;
+        final CfOptions options;
+
+        /**
+         * The file this class has been translated for.
+         */
+        DexFile target;
+
+        /**
+         * The translated class, or <code>null</code> if the translation
+         * failed.
+         */
+        ClassDefItem result;
+
+        /**
+         * Indicates that this class failed and must not be translated again.
+         */
+        boolean failed;
+
+        /**
+         * The error that occurred while adding this class.
+         */
+        RuntimeException error;
+
+        Translation(long ticket, String name, byte[] bytes, int offset, int length, CfOptions options) {
+            this.ticket  = ticket;
+            this.name    = name;
+            this.bytes   = bytes;
+            this.offset  = offset;
+            this.length  = length;
+            this.options = options;
+        }
+
+        void translate(DexFile target) {
+            this.target = target;
+            this.result = null;
+            DirectClassFile dcf;
+            try {
+                dcf = classParser.read(name, bytes, offset, length);
+            } catch (ParseException e) {
+                failed = true;
+                diagnostics.report(name, Diagnostic.Phase.PARSE, e);
+                return;
+            } catch (RuntimeException e) {
+                failed = true;
+                throw e;
+            }
+            if (options.optimizeListFile != null || options.dontOptimizeListFile != null) {
+                context.markNotReusable();
+            }
+            try {
+                // The class data is not read again by the translator
+                result = CfTranslator.translate(
+                        context.getDxContext(), dcf, bytes, options, target.getDexOptions(), target);
+            } catch (ParseException | SimException e) {
+                failed = true;
+                diagnostics.report(name, Diagnostic.Phase.TRANSLATE, e);
+            } catch (RuntimeException e) {
+                // The translator wraps every error in an ExceptionWithContext,
+                // anything but the two above is a bug in dx or this library
+                failed = true;
+                throw e;
+            }
+        }
+    }
 }
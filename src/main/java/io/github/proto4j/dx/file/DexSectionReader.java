@@ -0,0 +1,522 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Proto4j
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.proto4j.dx.file; //@date 18.10.2026
+
+import com.android.dex.ClassDef;
+import com.android.dex.Dex;
+import com.android.dex.TableOfContents;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Objects;
+
+/**
+ * Streams the class definitions, members and code items of a dex-file to a
+ * {@link DexVisitor} without materializing <code>ClassDef</code>,
+ * <code>ClassData</code> or <code>Code</code> objects. The sections are
+ * located through the {@link TableOfContents} and decoded directly from the
+ * raw data, and the same flyweight objects are passed to the visitor for
+ * every element.
+ * <pre>
+ * try (DexInputStream dis = factory.newInputStream(source)) {
+ *     dis.accept(new DexVisitor() {
+ *         &#64;Override
+ *         public void visitCode(DexSectionReader.CodeInfo code) {
+ *             instructions += code.getInstructionsSize();
+ *         }
+ *     });
+ * }
+ * </pre>
+ * Indices are always available without allocation, resolving them into
+ * names creates new strings.
+ *
+ * @see DexVisitor
+ * @see DexInputStream#accept(DexVisitor)
+ */
+public final class DexSectionReader {
+
+    private final Dex             dex;
+    private final ByteBuffer      data;
+    private final TableOfContents toc;
+
+    private final ClassInfo  classInfo  = new ClassInfo();
+    private final FieldInfo  fieldInfo  = new FieldInfo();
+    private final MethodInfo methodInfo = new MethodInfo();
+    private final CodeInfo   codeInfo   = new CodeInfo();
+
+    /**
+     * The read position within the class data section.
+     */
+    private int cursor;
+
+    /**
+     * The size of the dex-file as stated in its header.
+     */
+    private final int fileSize;
+
+    /**
+     * Creates a new reader over the given dex-file data. The array is used
+     * directly and must not be modified while it is read.
+     *
+     * @param data the raw dex-file
+     * @throws IOException if the data contains no valid table of contents
+     */
+    public DexSectionReader(byte[] data) throws IOException {
+        this(data, Objects.requireNonNull(data, "data").length);
+    }
+
+    /**
+     * Creates a new reader over the first <code>length</code> bytes of the
+     * given array. The array is used directly and must not be modified
+     * while it is read.
+     *
+     * @param data the buffer that starts with the raw dex-file
+     * @param length the amount of valid bytes in the buffer
+     * @throws IOException if the data contains no valid table of contents
+     *         or is shorter than the size stated in its header
+     */
+    public DexSectionReader(byte[] data, int length) throws IOException {
+        Objects.requireNonNull(data, "data");
+        Objects.checkFromIndexSize(0, length, data.length);
+        try {
+            this.dex = new Dex(data);
+        } catch (RuntimeException e) {
+            // dx reports a malformed header or map through unchecked exceptions
+            throw new IOException("Malformed dex-file", e);
+        }
+        this.toc      = dex.getTableOfContents();
+        this.fileSize = toc.fileSize;
+        if (fileSize < 0 || fileSize > length) {
+            throw new IOException("Truncated dex-file: expected " + fileSize + " bytes, got " + length);
+        }
+        this.data = ByteBuffer.wrap(data, 0, fileSize).order(ByteOrder.LITTLE_ENDIAN);
+        checkSection(toc.typeIds, 4);
+        checkSection(toc.fieldIds, 8);
+        checkSection(toc.methodIds, 8);
+        checkSection(toc.classDefs, 32);
+    }
+
+    /**
+     * @return the table of contents of the underlying dex-file
+     */
+    public TableOfContents getTableOfContents() {
+        return toc;
+    }
+
+    /**
+     * @return the amount of class definitions
+     */
+    public int getClassCount() {
+        return toc.classDefs.size;
+    }
+
+    /**
+     * Passes all classes of the dex-file to the given visitor.
+     *
+     * @param visitor the visitor to use
+     * @throws IOException if a class definition, class data or code item
+     *         lies outside the dex-file
+     */
+    public void accept(DexVisitor visitor) throws IOException {
+        Objects.requireNonNull(visitor, "visitor");
+
+        int offset = toc.classDefs.off;
+        for (int i = 0; i < toc.classDefs.size; i++, offset += 32) {
+            classInfo.index            = i;
+            classInfo.typeIndex        = data.getInt(offset);
+            classInfo.accessFlags      = data.getInt(offset + 4);
+            classInfo.supertypeIndex   = data.getInt(offset + 8);
+            classInfo.interfacesOffset = data.getInt(offset + 12);
+            classInfo.sourceFileIndex  = data.getInt(offset + 16);
+            classInfo.classDataOffset  = data.getInt(offset + 24);
+            checkIndex(classInfo.typeIndex, toc.typeIds.size, "type");
+            if (classInfo.supertypeIndex != ClassDef.NO_INDEX) {
+                checkIndex(classInfo.supertypeIndex, toc.typeIds.size, "type");
+            }
+            if (classInfo.interfacesOffset != 0) {
+                checkRange(classInfo.interfacesOffset, 4);
+                checkRange(classInfo.interfacesOffset + 4, (long) data.getInt(classInfo.interfacesOffset) * 2);
+            }
+
+            if (visitor.visitClass(classInfo) && classInfo.classDataOffset != 0) {
+                acceptClassData(visitor, classInfo.classDataOffset);
+            }
+            visitor.visitClassEnd(classInfo);
+        }
+    }
+
+    private void acceptClassData(DexVisitor visitor, int offset) throws IOException {
+        checkRange(offset, 0);
+        cursor = offset;
+        int staticFields   = readUleb128();
+        int instanceFields = readUleb128();
+        int directMethods  = readUleb128();
+        int virtualMethods = readUleb128();
+
+        acceptFields(visitor, staticFields, true);
+        acceptFields(visitor, instanceFields, false);
+        acceptMethods(visitor, directMethods, true);
+        acceptMethods(visitor, virtualMethods, false);
+    }
+
+    private void acceptFields(DexVisitor visitor, int count, boolean isStatic) throws IOException {
+        int fieldIndex = 0;
+        for (int i = 0; i < count; i++) {
+            fieldIndex += readUleb128();
+            checkIndex(fieldIndex, toc.fieldIds.size, "field");
+            fieldInfo.fieldIndex  = fieldIndex;
+            fieldInfo.accessFlags = readUleb128();
+            fieldInfo.isStatic    = isStatic;
+            visitor.visitField(fieldInfo);
+        }
+    }
+
+    private void acceptMethods(DexVisitor visitor, int count, boolean isDirect) throws IOException {
+        int methodIndex = 0;
+        for (int i = 0; i < count; i++) {
+            methodIndex += readUleb128();
+            methodInfo.methodIndex = methodIndex;
+            methodInfo.accessFlags = readUleb128();
+            methodInfo.codeOffset  = readUleb128();
+            methodInfo.isDirect    = isDirect;
+            checkIndex(methodIndex, toc.methodIds.size, "method");
+
+            if (visitor.visitMethod(methodInfo) && methodInfo.codeOffset != 0) {
+                int code = methodInfo.codeOffset;
+                checkRange(code, 16);
+                codeInfo.offset             = code;
+                codeInfo.registersSize      = data.getShort(code) & 0xFFFF;
+                codeInfo.insSize            = data.getShort(code + 2) & 0xFFFF;
+                codeInfo.outsSize           = data.getShort(code + 4) & 0xFFFF;
+                codeInfo.triesSize          = data.getShort(code + 6) & 0xFFFF;
+                codeInfo.debugInfoOffset    = data.getInt(code + 8);
+                codeInfo.instructionsSize   = data.getInt(code + 12);
+                codeInfo.instructionsOffset = code + 16;
+                checkRange(codeInfo.instructionsOffset, (codeInfo.instructionsSize & 0xFFFFFFFFL) * 2);
+                visitor.visitCode(codeInfo);
+            }
+        }
+    }
+
+    private int readUleb128() throws IOException {
+        int result = 0, shift = 0, b;
+        do {
+            if (cursor >= fileSize) {
+                throw new IOException("Class data exceeds the dex-file at offset " + cursor);
+            }
+            b = data.get(cursor++) & 0xFF;
+            result |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0 && shift < 35);
+        return result;
+    }
+
+    private void checkSection(TableOfContents.Section section, int itemSize) throws IOException {
+        if (section.size < 0 || (section.size > 0 && section.off <= 0)) {
+            throw new IOException("Malformed section " + section);
+        }
+        checkRange(section.off, (long) section.size * itemSize);
+    }
+
+    private void checkRange(int offset, long size) throws IOException {
+        if (offset < 0 || size < 0 || offset + size > fileSize) {
+            throw new IOException("Offset " + offset + " (+" + size + ") exceeds the dex-file of "
+                                  + fileSize + " bytes");
+        }
+    }
+
+    private static void checkIndex(int index, int size, String kind) throws IOException {
+        if (index < 0 || index >= size) {
+            throw new IOException("Illegal " + kind + " index " + index);
+        }
+    }
+
+    String string(int index) {
+        return dex.strings().get(index);
+    }
+
+    String typeName(int typeIndex) {
+        return typeIndex == ClassDef.NO_INDEX ? null : string(data.getInt(toc.typeIds.off + typeIndex * 4));
+    }
+
+    /**
+     * A class definition.
+     */
+    public final class ClassInfo {
+
+        int index;
+        int typeIndex;
+        int accessFlags;
+        int supertypeIndex;
+        int interfacesOffset;
+        int sourceFileIndex;
+        int classDataOffset;
+
+        private ClassInfo() {}
+
+        /**
+         * @return the index of this class definition
+         */
+        public int getIndex() {
+            return index;
+        }
+
+        /**
+         * @return the type id of this class
+         */
+        public int getTypeIndex() {
+            return typeIndex;
+        }
+
+        /**
+         * @return the type descriptor of this class
+         */
+        public String getDescriptor() {
+            return typeName(typeIndex);
+        }
+
+        /**
+         * @return the access flags of this class
+         */
+        public int getAccessFlags() {
+            return accessFlags;
+        }
+
+        /**
+         * @return the type id of the superclass, or {@link ClassDef#NO_INDEX}
+         */
+        public int getSupertypeIndex() {
+            return supertypeIndex;
+        }
+
+        /**
+         * @return the type descriptor of the superclass, or <code>null</code>
+         */
+        public String getSupertypeDescriptor() {
+            return typeName(supertypeIndex);
+        }
+
+        /**
+         * @return the amount of implemented interfaces
+         */
+        public int getInterfaceCount() {
+            return interfacesOffset == 0 ? 0 : data.getInt(interfacesOffset);
+        }
+
+        /**
+         * @param i the interface position
+         * @return the type id of the i-th implemented interface
+         */
+        public int getInterfaceIndex(int i) {
+            return data.getShort(interfacesOffset + 4 + i * 2) & 0xFFFF;
+        }
+
+        /**
+         * @return the string id of the source file, or {@link ClassDef#NO_INDEX}
+         */
+        public int getSourceFileIndex() {
+            return sourceFileIndex;
+        }
+
+        /**
+         * @return the offset of the class data, or <code>0</code> if this
+         *         class declares no members
+         */
+        public int getClassDataOffset() {
+            return classDataOffset;
+        }
+    }
+
+    /**
+     * A field declared in a class definition.
+     */
+    public final class FieldInfo {
+
+        int     fieldIndex;
+        int     accessFlags;
+        boolean isStatic;
+
+        private FieldInfo() {}
+
+        /**
+         * @return the field id of this field
+         */
+        public int getFieldIndex() {
+            return fieldIndex;
+        }
+
+        /**
+         * @return the name of this field
+         */
+        public String getName() {
+            return string(data.getInt(toc.fieldIds.off + fieldIndex * 8 + 4));
+        }
+
+        /**
+         * @return the access flags of this field
+         */
+        public int getAccessFlags() {
+            return accessFlags;
+        }
+
+        /**
+         * @return whether this is a static field
+         */
+        public boolean isStatic() {
+            return isStatic;
+        }
+    }
+
+    /**
+     * A method declared in a class definition.
+     */
+    public final class MethodInfo {
+
+        int     methodIndex;
+        int     accessFlags;
+        int     codeOffset;
+        boolean isDirect;
+
+        private MethodInfo() {}
+
+        /**
+         * @return the method id of this method
+         */
+        public int getMethodIndex() {
+            return methodIndex;
+        }
+
+        /**
+         * @return the name of this method
+         */
+        public String getName() {
+            return string(data.getInt(toc.methodIds.off + methodIndex * 8 + 4));
+        }
+
+        /**
+         * @return the proto id of this method
+         */
+        public int getProtoIndex() {
+            return data.getShort(toc.methodIds.off + methodIndex * 8 + 2) & 0xFFFF;
+        }
+
+        /**
+         * @return the access flags of this method
+         */
+        public int getAccessFlags() {
+            return accessFlags;
+        }
+
+        /**
+         * @return the offset of the code item, or <code>0</code> for abstract
+         *         and native methods
+         */
+        public int getCodeOffset() {
+            return codeOffset;
+        }
+
+        /**
+         * @return whether this is a static, private or constructor method
+         */
+        public boolean isDirect() {
+            return isDirect;
+        }
+    }
+
+    /**
+     * The code item of a method.
+     */
+    public final class CodeInfo {
+
+        int offset;
+        int registersSize;
+        int insSize;
+        int outsSize;
+        int triesSize;
+        int debugInfoOffset;
+        int instructionsSize;
+        int instructionsOffset;
+
+        private CodeInfo() {}
+
+        /**
+         * @return the offset of this code item
+         */
+        public int getOffset() {
+            return offset;
+        }
+
+        /**
+         * @return the number of registers used by the code
+         */
+        public int getRegistersSize() {
+            return registersSize;
+        }
+
+        /**
+         * @return the number of words of incoming arguments
+         */
+        public int getInsSize() {
+            return insSize;
+        }
+
+        /**
+         * @return the number of words of outgoing argument space
+         */
+        public int getOutsSize() {
+            return outsSize;
+        }
+
+        /**
+         * @return the number of try items
+         */
+        public int getTriesSize() {
+            return triesSize;
+        }
+
+        /**
+         * @return the offset of the debug info, or <code>0</code>
+         */
+        public int getDebugInfoOffset() {
+            return debugInfoOffset;
+        }
+
+        /**
+         * @return the size of the instruction list in 16-bit code units
+         */
+        public int getInstructionsSize() {
+            return instructionsSize;
+        }
+
+        /**
+         * @param i the code unit position
+         * @return the i-th 16-bit code unit of the instruction list
+         */
+        public int getInstructionUnit(int i) {
+            return data.getShort(instructionsOffset + i * 2) & 0xFFFF;
+        }
+    }
+}
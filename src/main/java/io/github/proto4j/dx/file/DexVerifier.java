@@ -0,0 +1,232 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Proto4j
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.proto4j.dx.file; //@date 18.10.2026
+
+import com.android.dex.Dex;
+import com.android.dex.DexFormat;
+import com.android.dex.TableOfContents;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.zip.Adler32;
+
+/**
+ * Verifies the integrity of raw dex-file data before it is converted into a
+ * {@link Dex} object. The following properties are checked:
+ * <ul>
+ *     <li>the header magic, endian tag, header size and file size,</li>
+ *     <li>the Adler-32 checksum and the SHA-1 signature, which are both
+ *     computed in a single pass over the data, and</li>
+ *     <li>the bounds of all sections listed in the
+ *     {@link TableOfContents}.</li>
+ * </ul>
+ * A failed check is reported with an <code>IOException</code> describing
+ * the first violation. Verification is disabled on {@link DexInputStream}
+ * by default and can be enabled with
+ * {@link DexInputStream#setVerify(boolean)} for untrusted sources.
+ *
+ * @see DexInputStream
+ */
+public final class DexVerifier {
+
+    /**
+     * The amount of bytes both digests are updated with at once.
+     */
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private static final int CHECKSUM_OFFSET  = 8;
+    private static final int SIGNATURE_OFFSET = 12;
+    private static final int SIGNATURE_SIZE   = 20;
+    private static final int FILE_SIZE_OFFSET = 32;
+    private static final int HEADER_SIZE      = 0x70;
+
+    private DexVerifier() {}
+
+    /**
+     * Verifies the given dex-file data.
+     *
+     * @param data the raw dex-file
+     * @throws IOException if the data is malformed
+     */
+    public static void verify(byte[] data) throws IOException {
+        verify(data, data.length);
+    }
+
+    /**
+     * Verifies the first <code>length</code> bytes of the given array.
+     *
+     * @param data the raw dex-file, may be larger than <code>length</code>
+     * @param length the dex-file size
+     * @throws IOException if the data is malformed
+     */
+    public static void verify(byte[] data, int length) throws IOException {
+        Objects.requireNonNull(data, "data");
+        if (length < HEADER_SIZE || length > data.length) {
+            throw new IOException("Dex file too small: " + length + " bytes");
+        }
+
+        verifyHeader(data, length);
+        verifyHashes(data, length);
+        verifySections(data, length);
+    }
+
+    /**
+     * Reads and verifies all given files on the provided executor.
+     *
+     * @param files the dex-files to verify
+     * @param executor the executor to run the verification tasks on
+     * @return all files that failed verification mapped to their error, in
+     *         the order they were given
+     */
+    public static Map<Path, IOException> verifyAll(Collection<Path> files, Executor executor) {
+        Objects.requireNonNull(executor, "executor");
+
+        Map<Path, CompletableFuture<IOException>> tasks = new LinkedHashMap<>();
+        for (Path file : files) {
+            tasks.put(file, CompletableFuture.supplyAsync(() -> verifyFile(file), executor));
+        }
+
+        Map<Path, IOException> failures = new LinkedHashMap<>();
+        tasks.forEach((file, task) -> {
+            IOException error;
+            try {
+                error = task.join();
+            } catch (CompletionException e) {
+                error = new IOException("Could not verify " + file, e.getCause());
+            }
+            if (error != null) {
+                failures.put(file, error);
+            }
+        });
+        return failures;
+    }
+
+    private static IOException verifyFile(Path file) {
+        try (DexInputStream dis = new DexInputStream();
+             InputStream inputStream = Files.newInputStream(file)) {
+            dis.read(inputStream);
+            dis.verify();
+            return null;
+        } catch (IOException e) {
+            return e;
+        }
+    }
+
+    private static void verifyHeader(byte[] data, int length) throws IOException {
+        if (!DexFormat.isSupportedDexMagic(Arrays.copyOf(data, 8))) {
+            throw new IOException("Unexpected magic: " + Arrays.toString(Arrays.copyOf(data, 8)));
+        }
+
+        int fileSize = readInt(data, FILE_SIZE_OFFSET);
+        if (fileSize != length) {
+            throw new IOException("Unexpected file size: " + fileSize + ", actual " + length);
+        }
+
+        int headerSize = readInt(data, FILE_SIZE_OFFSET + 4);
+        if (headerSize != HEADER_SIZE) {
+            throw new IOException("Unexpected header size: " + headerSize);
+        }
+
+        int endianTag = readInt(data, FILE_SIZE_OFFSET + 8);
+        if (endianTag != DexFormat.ENDIAN_TAG) {
+            throw new IOException("Unexpected endian tag: 0x" + Integer.toHexString(endianTag));
+        }
+    }
+
+    private static void verifyHashes(byte[] data, int length) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new AssertionError(e);
+        }
+
+        // The checksum covers everything after itself, the signature
+        // everything after itself. Both are fed with the same chunks.
+        Adler32 adler32 = new Adler32();
+        int     start   = SIGNATURE_OFFSET + SIGNATURE_SIZE;
+        adler32.update(data, SIGNATURE_OFFSET, SIGNATURE_SIZE);
+        for (int off = start; off < length; off += CHUNK_SIZE) {
+            int len = Math.min(CHUNK_SIZE, length - off);
+            adler32.update(data, off, len);
+            digest.update(data, off, len);
+        }
+
+        int checksum = readInt(data, CHECKSUM_OFFSET);
+        if (checksum != (int) adler32.getValue()) {
+            throw new IOException("Bad checksum: 0x" + Integer.toHexString(checksum)
+                                  + ", expected 0x" + Integer.toHexString((int) adler32.getValue()));
+        }
+
+        byte[] signature = Arrays.copyOfRange(data, SIGNATURE_OFFSET, SIGNATURE_OFFSET + SIGNATURE_SIZE);
+        if (!MessageDigest.isEqual(signature, digest.digest())) {
+            throw new IOException("Bad signature");
+        }
+    }
+
+    private static void verifySections(byte[] data, int length) throws IOException {
+        TableOfContents toc;
+        try {
+            toc = new Dex(data).getTableOfContents();
+        } catch (RuntimeException e) {
+            // dx reports malformed maps with various unchecked exceptions
+            throw new IOException("Malformed map list", e);
+        }
+
+        for (TableOfContents.Section section : toc.sections) {
+            if (!section.exists()) {
+                continue;
+            }
+            long end = (long) section.off + section.byteCount;
+            if (section.off < 0 || section.byteCount < 0 || end > length) {
+                throw new IOException("Section out of bounds: " + section);
+            }
+        }
+
+        long dataEnd = (long) toc.dataOff + toc.dataSize;
+        if (toc.dataOff < 0 || toc.dataSize < 0 || dataEnd > length) {
+            throw new IOException("Data section out of bounds: " + toc.dataOff + "+" + toc.dataSize);
+        }
+    }
+
+    private static int readInt(byte[] data, int off) {
+        return (data[off] & 0xFF)
+               | (data[off + 1] & 0xFF) << 8
+               | (data[off + 2] & 0xFF) << 16
+               | (data[off + 3] & 0xFF) << 24;
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Proto4j
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.proto4j.dx.file; //@date 18.10.2026
+
+/**
+ * A visitor that receives the classes, fields, methods and code items of a
+ * dex-file from a {@link DexSectionReader}. The objects passed to a visitor
+ * are flyweights: they are reused for every element and must not be
+ * retained after the method returns.
+ * <pre>
+ * reader.accept(new DexVisitor() {
+ *     &#64;Override
+ *     public boolean visitMethod(DexSectionReader.MethodInfo method) {
+ *         count++;
+ *         return true;
+ *     }
+ * });
+ * </pre>
+ * All methods do nothing by default.
+ *
+ * @see DexSectionReader
+ */
+public interface DexVisitor {
+
+    /**
+     * Visits a class definition.
+     *
+     * @param classInfo the class definition
+     * @return <code>true</code> if the fields and methods of this class
+     *         should be visited
+     */
+    default boolean visitClass(DexSectionReader.ClassInfo classInfo) {
+        return true;
+    }
+
+    /**
+     * Visits a field declared by the last visited class.
+     *
+     * @param fieldInfo the field
+     */
+    default void visitField(DexSectionReader.FieldInfo fieldInfo) {}
+
+    /**
+     * Visits a method declared by the last visited class.
+     *
+     * @param methodInfo the method
+     * @return <code>true</code> if the code item of this method should be
+     *         visited
+     */
+    default boolean visitMethod(DexSectionReader.MethodInfo methodInfo) {
+        return true;
+    }
+
+    /**
+     * Visits the code item of the last visited method.
+     *
+     * @param codeInfo the code item
+     */
+    default void visitCode(DexSectionReader.CodeInfo codeInfo) {}
+
+    /**
+     * Called after all members of a class have been visited.
+     *
+     * @param classInfo the class definition
+     */
+    default void visitClassEnd(DexSectionReader.ClassInfo classInfo) {}
+}
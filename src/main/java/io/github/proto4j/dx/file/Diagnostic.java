@@ -0,0 +1,104 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Proto4j
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.proto4j.dx.file; //@date 18.10.2026
+
+import com.android.dex.util.ExceptionWithContext;
+
+/**
+ * A single class that could not be translated by a {@link DexOutputStream}.
+ * Records are created without formatting any message; the message and the
+ * dx context are taken from the original exception on demand.
+ *
+ * @see DiagnosticCollector
+ */
+public final class Diagnostic {
+
+    /**
+     * The step of the conversion that failed.
+     */
+    public enum Phase {
+        /**
+         * The class-file could not be parsed by the <code>ClassParser</code>.
+         */
+        PARSE,
+
+        /**
+         * The parsed class could not be translated by the
+         * <code>CfTranslator</code>.
+         */
+        TRANSLATE
+    }
+
+    private final String               className;
+    private final Phase                phase;
+    private final ExceptionWithContext exception;
+
+    Diagnostic(String className, Phase phase, ExceptionWithContext exception) {
+        this.className = className;
+        this.phase     = phase;
+        this.exception = exception;
+    }
+
+    /**
+     * @return the class filename <b>with</b> .class at the end
+     */
+    public String getClassName() {
+        return className;
+    }
+
+    /**
+     * @return the step of the conversion that failed
+     */
+    public Phase getPhase() {
+        return phase;
+    }
+
+    /**
+     * @return the message of the original exception
+     */
+    public String getMessage() {
+        return exception.getMessage();
+    }
+
+    /**
+     * @return the context lines dx attached to the exception, e.g. the
+     *         method that was processed
+     */
+    public String getContext() {
+        return exception.getContext();
+    }
+
+    /**
+     * @return the original exception
+     */
+    public ExceptionWithContext getException() {
+        return exception;
+    }
+
+    @Override
+    public String toString() {
+        return phase + " " + className + ": " + getMessage();
+    }
+}
@@ -0,0 +1,221 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Proto4j
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.proto4j.dx.file; //@date 18.10.2026
+
+import com.android.dex.util.ExceptionWithContext;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Collects the classes a {@link DexOutputStream} failed to translate. The
+ * records are stored in a fixed-size array that is allocated on the first
+ * failure and filled without locking, so that many threads can report
+ * failures at the same time. Once the array is full, further failures are
+ * only counted.
+ * <pre>
+ * try (DexOutputStream dos = factory.newOutputStream()) {
+ *     dos.writeAll(zipInputStream);
+ *
+ *     DiagnosticCollector diagnostics = dos.getDiagnostics();
+ *     if (diagnostics.hasFailures()) {
+ *         diagnostics.getDiagnostics().forEach(System.err::println);
+ *     }
+ * }
+ * </pre>
+ * With {@link Policy#FAIL_FAST} the original exception is thrown to the
+ * caller after it has been recorded.
+ *
+ * @see Diagnostic
+ */
+public final class DiagnosticCollector {
+
+    /**
+     * Defines what happens after a failure has been recorded.
+     */
+    public enum Policy {
+        /**
+         * Skips the failed class and continues with the next one.
+         */
+        CONTINUE,
+
+        /**
+         * Rethrows the exception of the failed class.
+         */
+        FAIL_FAST
+    }
+
+    /**
+     * The default amount of records kept by a collector.
+     */
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    private final Policy policy;
+    private final int    capacity;
+
+    /**
+     * The record buffer, allocated on the first failure.
+     */
+    private volatile AtomicReferenceArray<Diagnostic> records;
+    private final AtomicInteger                    count       = new AtomicInteger();
+    private final AtomicIntegerArray               phaseCounts = new AtomicIntegerArray(Diagnostic.Phase.values().length);
+
+    /**
+     * Creates a new collector that continues after failures.
+     */
+    public DiagnosticCollector() {
+        this(Policy.CONTINUE, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a new collector.
+     *
+     * @param policy what to do after a failure has been recorded
+     * @param capacity the maximum amount of records to keep
+     * @throws IllegalArgumentException if the capacity is negative
+     */
+    public DiagnosticCollector(Policy policy, int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Illegal negative number");
+        }
+        this.policy  = Objects.requireNonNull(policy, "policy");
+        this.capacity = capacity;
+    }
+
+    /**
+     * Records a failed class and applies the policy of this collector.
+     *
+     * @param className the class filename
+     * @param phase the step of the conversion that failed
+     * @param exception the exception thrown by dx
+     * @throws ExceptionWithContext the given exception if the policy is
+     *         {@link Policy#FAIL_FAST}
+     */
+    void report(String className, Diagnostic.Phase phase, ExceptionWithContext exception) {
+        phaseCounts.incrementAndGet(phase.ordinal());
+        int index = count.getAndIncrement();
+        if (index < capacity) {
+            records().set(index, new Diagnostic(className, phase, exception));
+        }
+        if (policy == Policy.FAIL_FAST) {
+            throw exception;
+        }
+    }
+
+    /**
+     * @return what happens after a failure has been recorded
+     */
+    public Policy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * @return <code>true</code> if at least one failure has been reported
+     */
+    public boolean hasFailures() {
+        return count.get() > 0;
+    }
+
+    /**
+     * @return the total amount of reported failures
+     */
+    public int getFailureCount() {
+        return count.get();
+    }
+
+    /**
+     * @param phase the phase to query
+     * @return the amount of reported failures in the given phase
+     */
+    public int getFailureCount(Diagnostic.Phase phase) {
+        return phaseCounts.get(phase.ordinal());
+    }
+
+    /**
+     * @return the amount of failures that were counted but not recorded
+     *         because this collector was full
+     */
+    public int getDroppedCount() {
+        return Math.max(0, count.get() - capacity);
+    }
+
+    /**
+     * Returns a snapshot of all recorded failures in the order they were
+     * reported.
+     *
+     * @return the recorded failures
+     */
+    public List<Diagnostic> getDiagnostics() {
+        int              size   = Math.min(count.get(), capacity);
+        List<Diagnostic> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Diagnostic diagnostic = records().get(i);
+            // the slot may be reserved but not published yet
+            if (diagnostic != null) {
+                result.add(diagnostic);
+            }
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    private AtomicReferenceArray<Diagnostic> records() {
+        AtomicReferenceArray<Diagnostic> current = records;
+        if (current == null) {
+            synchronized (this) {
+                current = records;
+                if (current == null) {
+                    records = current = new AtomicReferenceArray<>(capacity);
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Returns a short summary like
+     * <code>3 failures (parse: 1, translate: 2)</code>.
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append(getFailureCount()).append(getFailureCount() == 1 ? " failure (" : " failures (");
+        for (Diagnostic.Phase phase : Diagnostic.Phase.values()) {
+            if (phase.ordinal() > 0) {
+                builder.append(", ");
+            }
+            builder.append(phase.name().toLowerCase(Locale.ROOT)).append(": ").append(getFailureCount(phase));
+        }
+        if (getDroppedCount() > 0) {
+            builder.append(", not recorded: ").append(getDroppedCount());
+        }
+        return builder.append(')').toString();
+    }
+}
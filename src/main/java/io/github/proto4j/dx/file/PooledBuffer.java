@@ -0,0 +1,145 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Proto4j
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.proto4j.dx.file; //@date 18.10.2026
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Arrays;
+
+/**
+ * A growable byte buffer whose backing arrays are taken from and returned to
+ * a {@link BufferPool}. It replaces the <code>ByteArrayOutputStream</code>
+ * instances previously created per stream and per zip entry.
+ */
+final class PooledBuffer extends OutputStream {
+
+    private static final int INITIAL_CAPACITY = 1 << BufferPool.MIN_SIZE_SHIFT;
+
+    private final BufferPool pool;
+
+    private byte[] buf;
+
+    private int count;
+
+    PooledBuffer(BufferPool pool) {
+        this.pool = pool;
+    }
+
+    @Override
+    public void write(int b) {
+        ensureCapacity(count + 1);
+        buf[count++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+        ensureCapacity(count + len);
+        System.arraycopy(b, off, buf, count, len);
+        count += len;
+    }
+
+    /**
+     * Appends all remaining bytes of the given stream.
+     */
+    void readFrom(InputStream inputStream) throws IOException {
+        ensureCapacity(count + Math.max(inputStream.available(), 1));
+        int len;
+        while ((len = inputStream.read(buf, count, buf.length - count)) != -1) {
+            count += len;
+            if (count == buf.length) {
+                ensureCapacity(count + 1);
+            }
+        }
+    }
+
+    /**
+     * Appends all remaining bytes of the given channel, staging them in a
+     * pooled direct buffer.
+     */
+    void readFrom(ReadableByteChannel channel) throws IOException {
+        ByteBuffer staging = pool.acquireDirect(INITIAL_CAPACITY << 4);
+        try {
+            while (channel.read(staging) != -1) {
+                staging.flip();
+                ensureCapacity(count + staging.remaining());
+                int len = staging.remaining();
+                staging.get(buf, count, len);
+                count += len;
+                staging.clear();
+            }
+        } finally {
+            pool.release(staging);
+        }
+    }
+
+    /**
+     * Returns the backing array, which may be larger than {@link #size()}.
+     */
+    byte[] array() {
+        return buf == null ? new byte[0] : buf;
+    }
+
+    int size() {
+        return count;
+    }
+
+    byte[] toByteArray() {
+        return buf == null ? new byte[0] : Arrays.copyOf(buf, count);
+    }
+
+    void reset() {
+        count = 0;
+    }
+
+    /**
+     * Resets this buffer and returns its backing array to the pool.
+     */
+    @Override
+    public void close() {
+        count = 0;
+        if (buf != null) {
+            pool.release(buf);
+            buf = null;
+        }
+    }
+
+    private void ensureCapacity(int minCapacity) {
+        if (minCapacity < 0) {
+            throw new OutOfMemoryError("Required buffer size too large");
+        }
+        if (buf == null) {
+            buf = pool.acquire(Math.max(minCapacity, INITIAL_CAPACITY));
+        } else if (minCapacity > buf.length) {
+            int    newCapacity = Math.max(minCapacity, buf.length << 1);
+            byte[] grown       = pool.acquire(newCapacity < 0 ? minCapacity : newCapacity);
+            System.arraycopy(buf, 0, grown, 0, count);
+            pool.release(buf);
+            buf = grown;
+        }
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Proto4j
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.proto4j.dx.file; //@date 18.10.2026
+
+import com.android.dx.command.dexer.DxContext;
+import com.android.dx.dex.cf.CodeStatistics;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The state a {@link DexOutputStream} passes to the dx translator. Creating
+ * a <code>DxContext</code> wraps its output streams into new
+ * <code>PrintStream</code> instances, which makes up a large part of the
+ * setup cost of a short-lived stream. Contexts taken from a {@link Pool} are
+ * therefore reset and returned to it when their stream is closed.
+ *
+ * @see DexOutputStream#close()
+ */
+public final class TranslationContext {
+
+    /**
+     * The pool this context is returned to, or <code>null</code>.
+     */
+    private final Pool pool;
+
+    private final DxContext dxContext;
+
+    /**
+     * Whether this context has been used in a way that can't be undone by
+     * {@link #reset()}.
+     */
+    private volatile boolean reusable = true;
+
+    /**
+     * Whether this context has been released since it was acquired.
+     */
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    /**
+     * Creates a new context that does not belong to any pool.
+     */
+    public TranslationContext() {
+        this(null);
+    }
+
+    private TranslationContext(Pool pool) {
+        this.pool      = pool;
+        this.dxContext = new DxContext();
+    }
+
+    /**
+     * @return the context passed to the dx translator
+     */
+    public DxContext getDxContext() {
+        return dxContext;
+    }
+
+    /**
+     * Excludes this context from being reused. The optimizer of dx loads its
+     * method lists only once per context, so contexts that were used with
+     * such lists must not be passed to other streams.
+     */
+    void markNotReusable() {
+        reusable = false;
+    }
+
+    /**
+     * Clears the code statistics collected by this context.
+     */
+    public void reset() {
+        CodeStatistics statistics = dxContext.codeStatistics;
+        statistics.runningDeltaRegisters    = 0;
+        statistics.runningDeltaInsns        = 0;
+        statistics.runningTotalInsns        = 0;
+        statistics.dexRunningDeltaRegisters = 0;
+        statistics.dexRunningDeltaInsns     = 0;
+        statistics.dexRunningTotalInsns     = 0;
+        statistics.runningOriginalBytes     = 0;
+    }
+
+    /**
+     * Returns this context to the pool it was taken from. The context must
+     * not be used afterwards. Releasing a context more than once has no
+     * effect, so it is never handed out twice.
+     */
+    public void release() {
+        if (released.compareAndSet(false, true) && pool != null) {
+            pool.release(this);
+        }
+    }
+
+    /**
+     * A bounded, thread-safe pool of translation contexts.
+     */
+    public static final class Pool {
+
+        /**
+         * The default amount of idle contexts kept by a pool.
+         */
+        public static final int DEFAULT_MAX_IDLE = 64;
+
+        private final Queue<TranslationContext> idle      = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger             idleCount = new AtomicInteger();
+        private final AtomicLong                created   = new AtomicLong();
+        private final AtomicLong                reused    = new AtomicLong();
+        private final int                       maxIdle;
+
+        /**
+         * Creates a new pool that keeps at most the given amount of idle
+         * contexts.
+         *
+         * @param maxIdle the retention bound, <code>0</code> disables pooling
+         * @throws IllegalArgumentException if the bound is negative
+         */
+        public Pool(int maxIdle) {
+            if (maxIdle < 0) {
+                throw new IllegalArgumentException("Illegal negative number");
+            }
+            this.maxIdle = maxIdle;
+        }
+
+        /**
+         * Returns an idle context or creates a new one.
+         *
+         * @return a context that will be returned to this pool on release
+         */
+        public TranslationContext acquire() {
+            TranslationContext context = idle.poll();
+            if (context == null) {
+                created.incrementAndGet();
+                return new TranslationContext(this);
+            }
+            idleCount.decrementAndGet();
+            reused.incrementAndGet();
+            context.released.set(false);
+            return context;
+        }
+
+        private void release(TranslationContext context) {
+            if (!context.reusable) {
+                return;
+            }
+            context.reset();
+            if (idleCount.incrementAndGet() <= maxIdle) {
+                idle.offer(context);
+            } else {
+                idleCount.decrementAndGet();
+            }
+        }
+
+        /**
+         * @return how many contexts have been created by this pool
+         */
+        public long getCreatedCount() {
+            return created.get();
+        }
+
+        /**
+         * @return how many acquisitions have been served with an idle context
+         */
+        public long getReuseCount() {
+            return reused.get();
+        }
+
+        /**
+         * @return the amount of idle contexts in this pool
+         */
+        public int getIdleCount() {
+            return idleCount.get();
+        }
+
+        @Override
+        public String toString() {
+            return "TranslationContext.Pool{idle=" + getIdleCount()
+                    + ", created=" + getCreatedCount()
+                    + ", reused=" + getReuseCount() + "}";
+        }
+    }
+}
@@ -0,0 +1,327 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Proto4j
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.proto4j.dx.query; //@date 18.10.2026
+
+import com.android.dex.Dex;
+import com.android.dex.FieldId;
+import com.android.dex.MethodId;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+
+/**
+ * Answers the question which of a set of dex-files reference a given string,
+ * type, method or field. The lookups binary-search the sorted id tables of
+ * each dex-file instead of scanning them, and all dex-files are searched in
+ * parallel on a {@link ForkJoinPool}.
+ * <pre>
+ * DexQuery query = DexQuery.of(dexFiles);
+ *
+ * // results are passed to the consumer as soon as a dex-file is done
+ * query.findMethod("Ljava/lang/Runtime;", "exec", System.out::println);
+ *
+ * List&lt;DexReference&gt; refs = query.findType("Ljavax/crypto/Cipher;");
+ * </pre>
+ * Queries never modify the given dex-files and can be issued concurrently.
+ *
+ * @see DexReference
+ */
+public final class DexQuery {
+
+    /**
+     * Creates a new query over the given dex-files that runs on the common
+     * <code>ForkJoinPool</code>.
+     *
+     * @param dexFiles the dex-files to query
+     * @return the newly created query
+     */
+    public static DexQuery of(List<Dex> dexFiles) {
+        return new DexQuery(dexFiles, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a new query over the given dex-files that runs on the provided
+     * pool.
+     *
+     * @param dexFiles the dex-files to query
+     * @param pool the pool to run the queries on
+     * @return the newly created query
+     */
+    public static DexQuery of(List<Dex> dexFiles, ForkJoinPool pool) {
+        return new DexQuery(dexFiles, pool);
+    }
+
+    private final List<Dex>    dexFiles;
+    private final ForkJoinPool pool;
+
+    private DexQuery(List<Dex> dexFiles, ForkJoinPool pool) {
+        this.dexFiles = new ArrayList<>(Objects.requireNonNull(dexFiles, "dexFiles"));
+        this.pool     = Objects.requireNonNull(pool, "pool");
+    }
+
+    /**
+     * Searches all dex-files for the given string constant.
+     *
+     * @param value the string to search for
+     * @param consumer receives all results, possibly from multiple threads
+     */
+    public void findString(String value, Consumer<? super DexReference> consumer) {
+        Objects.requireNonNull(value, "value");
+        run(consumer, (dexIndex, dex, out) -> {
+            int index = Collections.binarySearch(dex.strings(), value);
+            if (index >= 0) {
+                out.accept(new DexReference(dexIndex, dex, DexReference.Kind.STRING, index));
+            }
+        });
+    }
+
+    /**
+     * Searches all dex-files for the given string constant.
+     *
+     * @param value the string to search for
+     * @return all results ordered by dex-file
+     */
+    public List<DexReference> findString(String value) {
+        return collect(consumer -> findString(value, consumer));
+    }
+
+    /**
+     * Searches all dex-files for the given type.
+     *
+     * @param descriptor the type descriptor, e.g. <code>Ljava/lang/Object;</code>
+     * @param consumer receives all results, possibly from multiple threads
+     */
+    public void findType(String descriptor, Consumer<? super DexReference> consumer) {
+        Objects.requireNonNull(descriptor, "descriptor");
+        run(consumer, (dexIndex, dex, out) -> {
+            int index = typeIndex(dex, descriptor);
+            if (index >= 0) {
+                out.accept(new DexReference(dexIndex, dex, DexReference.Kind.TYPE, index));
+            }
+        });
+    }
+
+    /**
+     * Searches all dex-files for the given type.
+     *
+     * @param descriptor the type descriptor, e.g. <code>Ljava/lang/Object;</code>
+     * @return all results ordered by dex-file
+     */
+    public List<DexReference> findType(String descriptor) {
+        return collect(consumer -> findType(descriptor, consumer));
+    }
+
+    /**
+     * Searches all dex-files for methods with the given name. All overloads
+     * of the method are reported.
+     *
+     * @param declaringType the descriptor of the declaring type, or
+     *         <code>null</code> to match methods of any type
+     * @param name the method name
+     * @param consumer receives all results, possibly from multiple threads
+     */
+    public void findMethod(String declaringType, String name, Consumer<? super DexReference> consumer) {
+        Objects.requireNonNull(name, "name");
+        run(consumer, (dexIndex, dex, out) -> {
+            int nameIndex = Collections.binarySearch(dex.strings(), name);
+            if (nameIndex < 0) {
+                return;
+            }
+
+            List<MethodId> methodIds = dex.methodIds();
+            if (declaringType == null) {
+                for (int i = 0; i < methodIds.size(); i++) {
+                    if (methodIds.get(i).getNameIndex() == nameIndex) {
+                        out.accept(new DexReference(dexIndex, dex, DexReference.Kind.METHOD, i));
+                    }
+                }
+                return;
+            }
+
+            int typeIndex = typeIndex(dex, declaringType);
+            if (typeIndex < 0) {
+                return;
+            }
+            // method ids are sorted by declaring type, name and prototype
+            Comparator<MethodId> order = Comparator.comparingInt(MethodId::getDeclaringClassIndex)
+                    .thenComparingInt(MethodId::getNameIndex);
+            MethodId key = new MethodId(dex, typeIndex, 0, nameIndex);
+            for (int i = lowerBound(methodIds, key, order);
+                 i < methodIds.size() && order.compare(methodIds.get(i), key) == 0; i++) {
+                out.accept(new DexReference(dexIndex, dex, DexReference.Kind.METHOD, i));
+            }
+        });
+    }
+
+    /**
+     * Searches all dex-files for methods with the given name.
+     *
+     * @param declaringType the descriptor of the declaring type, or
+     *         <code>null</code> to match methods of any type
+     * @param name the method name
+     * @return all results ordered by dex-file
+     */
+    public List<DexReference> findMethod(String declaringType, String name) {
+        return collect(consumer -> findMethod(declaringType, name, consumer));
+    }
+
+    /**
+     * Searches all dex-files for fields with the given name.
+     *
+     * @param declaringType the descriptor of the declaring type, or
+     *         <code>null</code> to match fields of any type
+     * @param name the field name
+     * @param consumer receives all results, possibly from multiple threads
+     */
+    public void findField(String declaringType, String name, Consumer<? super DexReference> consumer) {
+        Objects.requireNonNull(name, "name");
+        run(consumer, (dexIndex, dex, out) -> {
+            int nameIndex = Collections.binarySearch(dex.strings(), name);
+            if (nameIndex < 0) {
+                return;
+            }
+
+            List<FieldId> fieldIds = dex.fieldIds();
+            if (declaringType == null) {
+                for (int i = 0; i < fieldIds.size(); i++) {
+                    if (fieldIds.get(i).getNameIndex() == nameIndex) {
+                        out.accept(new DexReference(dexIndex, dex, DexReference.Kind.FIELD, i));
+                    }
+                }
+                return;
+            }
+
+            int typeIndex = typeIndex(dex, declaringType);
+            if (typeIndex < 0) {
+                return;
+            }
+            // field ids are sorted by declaring type, name and type
+            Comparator<FieldId> order = Comparator.comparingInt(FieldId::getDeclaringClassIndex)
+                    .thenComparingInt(FieldId::getNameIndex);
+            FieldId key = new FieldId(dex, typeIndex, 0, nameIndex);
+            for (int i = lowerBound(fieldIds, key, order);
+                 i < fieldIds.size() && order.compare(fieldIds.get(i), key) == 0; i++) {
+                out.accept(new DexReference(dexIndex, dex, DexReference.Kind.FIELD, i));
+            }
+        });
+    }
+
+    /**
+     * Searches all dex-files for fields with the given name.
+     *
+     * @param declaringType the descriptor of the declaring type, or
+     *         <code>null</code> to match fields of any type
+     * @param name the field name
+     * @return all results ordered by dex-file
+     */
+    public List<DexReference> findField(String declaringType, String name) {
+        return collect(consumer -> findField(declaringType, name, consumer));
+    }
+
+    private void run(Consumer<? super DexReference> consumer, Matcher matcher) {
+        Objects.requireNonNull(consumer, "consumer");
+        pool.invoke(new QueryTask(matcher, consumer, 0, dexFiles.size()));
+    }
+
+    private List<DexReference> collect(Consumer<Consumer<DexReference>> query) {
+        Queue<DexReference> results = new ConcurrentLinkedQueue<>();
+        query.accept(results::add);
+
+        List<DexReference> sorted = new ArrayList<>(results);
+        sorted.sort(Comparator.comparingInt(DexReference::getDexIndex)
+                              .thenComparingInt(DexReference::getIndex));
+        return sorted;
+    }
+
+    /**
+     * Type ids are sorted by the index of their descriptor string.
+     */
+    private static int typeIndex(Dex dex, String descriptor) {
+        int stringIndex = Collections.binarySearch(dex.strings(), descriptor);
+        if (stringIndex < 0) {
+            return -1;
+        }
+        int index = Collections.binarySearch(dex.typeIds(), stringIndex);
+        return Math.max(index, -1);
+    }
+
+    private static <T> int lowerBound(List<T> list, T key, Comparator<? super T> order) {
+        int low = 0, high = list.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (order.compare(list.get(mid), key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    @FunctionalInterface
+    private interface Matcher {
+        void match(int dexIndex, Dex dex, Consumer<? super DexReference> out);
+    }
+
+    /**
+     * Splits the dex-file range until a single file remains.
+     */
+    @SuppressWarnings("serial")
+    private final class QueryTask extends RecursiveAction {
+
+        private final Matcher                        matcher;
+        private final Consumer<? super DexReference> consumer;
+        private final int                            from;
+        private final int                            to;
+
+        QueryTask(Matcher matcher, Consumer<? super DexReference> consumer, int from, int to) {
+            this.matcher  = matcher;
+            this.consumer = consumer;
+            this.from     = from;
+            this.to       = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= 1) {
+                if (from < to) {
+                    matcher.match(from, dexFiles.get(from), consumer);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new QueryTask(matcher, consumer, from, mid),
+                      new QueryTask(matcher, consumer, mid, to));
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Proto4j
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.proto4j.dx.query; //@date 18.10.2026
+
+import com.android.dex.Dex;
+
+/**
+ * A single result of a {@link DexQuery}: an entry in one of the id tables
+ * of a dex-file. As the id tables of a dex-file only contain items that are
+ * defined or referenced by its classes, a reference states that the dex-file
+ * uses the queried string, type, method or field.
+ *
+ * @see DexQuery
+ */
+public final class DexReference {
+
+    /**
+     * The id table a reference was found in.
+     */
+    public enum Kind {
+        STRING, TYPE, METHOD, FIELD
+    }
+
+    private final int  dexIndex;
+    private final Dex  dex;
+    private final Kind kind;
+    private final int  index;
+
+    DexReference(int dexIndex, Dex dex, Kind kind, int index) {
+        this.dexIndex = dexIndex;
+        this.dex      = dex;
+        this.kind     = kind;
+        this.index    = index;
+    }
+
+    /**
+     * @return the position of the dex-file in the queried list
+     */
+    public int getDexIndex() {
+        return dexIndex;
+    }
+
+    /**
+     * @return the dex-file this reference was found in
+     */
+    public Dex getDex() {
+        return dex;
+    }
+
+    /**
+     * @return the id table this reference was found in
+     */
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * @return the index into the id table denoted by {@link #getKind()}
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    @Override
+    public String toString() {
+        switch (kind) {
+            case STRING:
+                return "dex#" + dexIndex + " string@" + index + " \"" + dex.strings().get(index) + "\"";
+            case TYPE:
+                return "dex#" + dexIndex + " type@" + index + " " + dex.typeNames().get(index);
+            case METHOD:
+                return "dex#" + dexIndex + " method@" + index + " " + dex.methodIds().get(index);
+            default:
+                return "dex#" + dexIndex + " field@" + index + " " + dex.fieldIds().get(index);
+        }
+    }
+}
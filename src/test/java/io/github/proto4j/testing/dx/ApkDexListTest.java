@@ -0,0 +1,120 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Proto4j
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.proto4j.testing.dx; //@date 18.10.2026
+
+import com.android.dex.Dex;
+import io.github.proto4j.dx.DexFactory;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ApkDexListTest {
+
+    private static Path writeApk(Map<String, byte[]> entries, String storedEntry) throws IOException {
+        Path apk = Files.createTempFile("proto4j-", ".apk");
+        try (OutputStream out = Files.newOutputStream(apk);
+             ZipOutputStream zip = new ZipOutputStream(out)) {
+            zip.setComment("test archive");
+            for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+                ZipEntry zipEntry = new ZipEntry(entry.getKey());
+                if (entry.getKey().equals(storedEntry)) {
+                    CRC32 crc = new CRC32();
+                    crc.update(entry.getValue());
+                    zipEntry.setMethod(ZipEntry.STORED);
+                    zipEntry.setSize(entry.getValue().length);
+                    zipEntry.setCompressedSize(entry.getValue().length);
+                    zipEntry.setCrc(crc.getValue());
+                }
+                zip.putNextEntry(zipEntry);
+                zip.write(entry.getValue());
+                zip.closeEntry();
+            }
+        }
+        return apk;
+    }
+
+    @Test
+    public void testOrderAndStrayEntries() throws IOException {
+        byte[] first  = TestClasses.compile(TestClasses.dxClasses(5));
+        byte[] second = TestClasses.compile(TestClasses.dxClasses(10));
+        byte[] tenth  = TestClasses.compile(TestClasses.dxClasses(15));
+
+        // Central directory order differs from the load order
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        entries.put("classes10.dex", tenth);
+        entries.put("classes1.dex", tenth);
+        entries.put("classes01.dex", tenth);
+        entries.put("AndroidManifest.xml", new byte[16]);
+        entries.put("classes2.dex", second);
+        entries.put("assets/classes3.dex", tenth);
+        entries.put("classes.dex", first);
+
+        Path apk = writeApk(entries, null);
+        try {
+            List<Dex> dexFiles = DexFactory.getDefault().openApk(apk);
+            assertEquals(3, dexFiles.size());
+            assertArrayEquals(first, dexFiles.get(0).getBytes());
+            assertArrayEquals(second, dexFiles.get(1).getBytes());
+            assertArrayEquals(tenth, dexFiles.get(2).getBytes());
+        } finally {
+            Files.delete(apk);
+        }
+    }
+
+    @Test
+    public void testStoredEntry() throws IOException {
+        byte[] first  = TestClasses.compile(TestClasses.dxClasses(5));
+        byte[] second = TestClasses.compile(TestClasses.dxClasses(10));
+
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        entries.put("classes.dex", first);
+        entries.put("classes2.dex", second);
+
+        Path apk = writeApk(entries, "classes2.dex");
+        try {
+            List<Dex> dexFiles = DexFactory.getDefault().openApk(apk);
+            assertEquals(2, dexFiles.size());
+            assertArrayEquals(first, dexFiles.get(0).getBytes());
+
+            Dex stored = dexFiles.get(1);
+            assertArrayEquals(second, stored.getBytes());
+            assertEquals(new Dex(second).getTableOfContents().classDefs.size,
+                         stored.getTableOfContents().classDefs.size);
+            assertEquals(new Dex(second).typeNames(), stored.typeNames());
+        } finally {
+            Files.delete(apk);
+        }
+    }
+}
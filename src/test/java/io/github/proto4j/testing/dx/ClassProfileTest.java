@@ -0,0 +1,61 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Proto4j
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.proto4j.testing.dx; //@date 18.10.2026
+
+import io.github.proto4j.dx.ClassProfile;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ClassProfileTest {
+
+    @Test
+    public void testRead() throws IOException {
+        ClassProfile profile = ClassProfile.read(new StringReader(String.join("\n",
+                "# startup classes",
+                "Lcom/example/App;",
+                "HSPLcom/example/Main;->onCreate()V",
+                "",
+                "PLLauncher;->run()V",
+                "com.example.Util",
+                "com/example/Data.class")));
+
+        assertEquals(List.of("com/example/App.class", "com/example/Main.class", "Launcher.class",
+                             "com/example/Util.class", "com/example/Data.class"),
+                     List.copyOf(profile.getHotClasses()));
+    }
+
+    @Test
+    public void testDefaultPackage() {
+        // Flags are only stripped in front of methods
+        ClassProfile profile = ClassProfile.of(List.of("PLauncher;", "LPLauncher;->run()V", "SLog"));
+        assertEquals(Set.of("PLauncher.class", "SLog.class"), profile.getHotClasses());
+        assertTrue(profile.isHot("PLauncher.class"));
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Proto4j
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.proto4j.testing.dx; //@date 18.10.2026
+
+import com.android.dex.Dex;
+import io.github.proto4j.dx.file.DexCache;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DexCacheTest {
+
+    private static Path writeDex(Path directory, String name, int classes) throws IOException {
+        return Files.write(directory.resolve(name), TestClasses.compile(TestClasses.dxClasses(classes)));
+    }
+
+    private static void deleteAll(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Test
+    public void testHitAndMiss() throws IOException {
+        Path directory = Files.createTempDirectory("proto4j-cache");
+        try {
+            Path     file  = writeDex(directory, "classes.dex", 10);
+            DexCache cache = new DexCache(DexCache.DEFAULT_MAX_BYTES);
+
+            Dex dex = cache.get(file);
+            assertSame(dex, cache.get(file));
+            // The key is normalized
+            assertSame(dex, cache.get(directory.resolve("sub/../classes.dex")));
+
+            assertEquals(2, cache.getHitCount());
+            assertEquals(1, cache.getMissCount());
+            assertEquals(1, cache.size());
+            assertEquals(Files.size(file), cache.getCachedBytes());
+
+            cache.clear();
+            assertEquals(0, cache.size());
+            assertEquals(0, cache.getCachedBytes());
+            assertNotSame(dex, cache.get(file));
+            assertEquals(2, cache.getMissCount());
+        } finally {
+            deleteAll(directory);
+        }
+    }
+
+    @Test
+    public void testEvictionByBytes() throws IOException {
+        Path directory = Files.createTempDirectory("proto4j-cache");
+        try {
+            Path a = writeDex(directory, "a.dex", 10);
+            Path b = writeDex(directory, "b.dex", 11);
+            Path c = writeDex(directory, "c.dex", 12);
+
+            // Room for any two of the files, but not for all three
+            long     max   = Files.size(b) + Files.size(c);
+            DexCache cache = new DexCache(max);
+
+            Dex dexA = cache.get(a);
+            Dex dexB = cache.get(b);
+            assertSame(dexA, cache.get(a));
+            assertEquals(0, cache.getEvictionCount());
+
+            // b is the least recently used entry now
+            Dex dexC = cache.get(c);
+            assertEquals(1, cache.getEvictionCount());
+            assertEquals(2, cache.size());
+            assertEquals(Files.size(a) + Files.size(c), cache.getCachedBytes());
+            assertTrue(cache.getCachedBytes() <= max);
+
+            assertSame(dexA, cache.get(a));
+            assertSame(dexC, cache.get(c));
+            assertNotSame(dexB, cache.get(b));
+            assertEquals(2, cache.getEvictionCount());
+            assertEquals(4, cache.getMissCount());
+            assertEquals(3, cache.getHitCount());
+
+            // Files larger than the bound are never cached
+            DexCache small = new DexCache(Files.size(a) - 1);
+            assertNotSame(small.get(a), small.get(a));
+            assertEquals(0, small.size());
+            assertEquals(0, small.getEvictionCount());
+        } finally {
+            deleteAll(directory);
+        }
+    }
+
+    @Test
+    public void testInvalidation() throws IOException {
+        Path directory = Files.createTempDirectory("proto4j-cache");
+        try {
+            Path     file  = writeDex(directory, "classes.dex", 10);
+            DexCache cache = new DexCache(DexCache.DEFAULT_MAX_BYTES);
+            Dex      dex   = cache.get(file);
+
+            // Same size, different modification time
+            FileTime modified = Files.getLastModifiedTime(file);
+            Files.setLastModifiedTime(file, FileTime.fromMillis(modified.toMillis() + 10_000));
+            Dex touched = cache.get(file);
+            assertNotSame(dex, touched);
+            assertSame(touched, cache.get(file));
+
+            // Different size, same modification time
+            modified = Files.getLastModifiedTime(file);
+            writeDex(directory, "classes.dex", 20);
+            Files.setLastModifiedTime(file, modified);
+            Dex rewritten = cache.get(file);
+            assertNotSame(touched, rewritten);
+            assertEquals(Files.size(file), rewritten.getLength());
+
+            assertEquals(1, cache.size());
+            assertEquals(Files.size(file), cache.getCachedBytes());
+            assertEquals(3, cache.getMissCount());
+            assertEquals(1, cache.getHitCount());
+            assertEquals(0, cache.getEvictionCount());
+        } finally {
+            deleteAll(directory);
+        }
+    }
+
+    @Test
+    public void testNegativeBound() {
+        assertThrows(IllegalArgumentException.class, () -> new DexCache(-1));
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Proto4j
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.proto4j.testing.dx; //@date 18.10.2026
+
+import com.android.dex.Dex;
+import io.github.proto4j.dx.diff.DexDiff;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DexDiffTest {
+
+    static class Constants {
+        static final String S = "zzz_const";
+
+        List<String> values;
+    }
+
+    static class Plain {
+        int value;
+    }
+
+    @Test
+    public void testRenumberedIds() throws IOException {
+        Map<String, byte[]> classes = new TreeMap<>();
+        classes.put(TestClasses.filenameOf(Constants.class), TestClasses.bytesOf(Constants.class));
+        classes.put(TestClasses.filenameOf(Plain.class), TestClasses.bytesOf(Plain.class));
+        Dex oldDex = new Dex(TestClasses.compile(classes));
+
+        // Unrelated classes move the string "zzz_const" to a much higher index
+        Map<String, byte[]> extended = TestClasses.dxClasses(300);
+        int addedCount = extended.size();
+        extended.putAll(classes);
+        Dex newDex = new Dex(TestClasses.compile(extended));
+
+        DexDiff diff = DexDiff.compare(oldDex, newDex);
+        assertEquals(Collections.emptyList(), diff.getChangedClasses());
+        assertEquals(Collections.emptyList(), diff.getRemovedClasses());
+        assertEquals(addedCount, diff.getAddedClasses().size());
+        assertEquals(2, diff.getUnchangedCount());
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Proto4j
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.proto4j.testing.dx; //@date 18.10.2026
+
+import com.android.dex.Dex;
+import com.android.dex.TableOfContents;
+import io.github.proto4j.dx.DexEstimate;
+import io.github.proto4j.dx.DexEstimator;
+import io.github.proto4j.dx.DexFactory;
+import io.github.proto4j.dx.DexShard;
+import io.github.proto4j.dx.ShardingPolicy;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DexEstimatorTest {
+
+    @Test
+    public void testEstimateAll() throws IOException {
+        Map<String, byte[]> classes  = TestClasses.dxClasses(300);
+        DexEstimate         estimate = DexFactory.getDefault().newEstimator().estimateAll(classes);
+        TableOfContents     toc      = new Dex(TestClasses.compile(classes)).getTableOfContents();
+
+        assertEquals(toc.classDefs.size, estimate.getClassDefs());
+        assertEquals(toc.methodIds.size, estimate.getMethodIds());
+        assertEquals(toc.fieldIds.size, estimate.getFieldIds());
+        assertEquals(toc.protoIds.size, estimate.getProtoIds());
+        // Class constants that are never used are counted as types
+        assertTrue(Math.abs(toc.stringIds.size - estimate.getStringIds()) <= 5,
+                   "strings: " + toc.stringIds.size + " estimated as " + estimate.getStringIds());
+        assertTrue(Math.abs(toc.typeIds.size - estimate.getTypeIds()) <= 5,
+                   "types: " + toc.typeIds.size + " estimated as " + estimate.getTypeIds());
+        assertTrue(Math.abs(toc.fileSize - estimate.getEstimatedSize()) < toc.fileSize * 0.05,
+                   "size: " + toc.fileSize + " estimated as " + estimate.getEstimatedSize());
+        assertEquals(classes.size(), estimate.getClasses().size());
+        assertTrue(estimate.fitsSingleDex());
+    }
+
+    @Test
+    public void testShardByMemberIds() throws IOException {
+        Map<String, byte[]> classes   = TestClasses.dxClasses(300);
+        DexEstimator        estimator = DexFactory.getDefault().newEstimator();
+
+        List<DexShard> shards = DexFactory.getDefault().compileAll(
+                classes, ShardingPolicy.byMemberIds(1000, estimator));
+        assertTrue(shards.size() > 1);
+
+        int classCount = 0;
+        for (DexShard shard : shards) {
+            TableOfContents toc = new Dex(shard.toByteArray()).getTableOfContents();
+            assertTrue(toc.methodIds.size <= 1000, shard + " has " + toc.methodIds.size + " method ids");
+            assertTrue(toc.fieldIds.size <= 1000, shard + " has " + toc.fieldIds.size + " field ids");
+            classCount += toc.classDefs.size;
+        }
+        assertEquals(classes.size(), classCount);
+    }
+}
@@ -0,0 +1,279 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Proto4j
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.proto4j.testing.dx; //@date 18.10.2026
+
+import com.android.dex.Dex;
+import com.android.dex.util.ExceptionWithContext;
+import com.android.dx.cf.code.SimException;
+import com.android.dx.cf.direct.DirectClassFile;
+import com.android.dx.cf.direct.StdAttributeFactory;
+import com.android.dx.cf.iface.MethodList;
+import com.android.dx.cf.iface.ParseException;
+import io.github.proto4j.dx.ClassParser;
+import io.github.proto4j.dx.DexFactory;
+import io.github.proto4j.dx.DxVersion;
+import io.github.proto4j.dx.diff.DexDiff;
+import io.github.proto4j.dx.file.Diagnostic;
+import io.github.proto4j.dx.file.DexOutputStream;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DexOutputStreamTest {
+
+    @Test
+    public void testConcurrentAddClassWithSpill() throws Exception {
+        Map<String, byte[]> classes = TestClasses.dxClasses(600);
+        List<Map.Entry<String, byte[]>> entries = new ArrayList<>(classes.entrySet());
+        entries.add(entries.size() / 2, Map.entry("Broken.class", new byte[] {(byte) 0xCA, (byte) 0xFE}));
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try (DexOutputStream dos = DexFactory.getDefault().newOutputStream()) {
+            dos.setSpillThreshold(100_000);
+
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                int offset = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = offset; i < entries.size(); i += 8) {
+                        byte[] copy = entries.get(i).getValue().clone();
+                        dos.addClass(entries.get(i).getKey(), copy);
+                        // The data is no longer needed once addClass returns
+                        Arrays.fill(copy, (byte) 0);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+
+            // The broken class is reported once, even if it was started before a spill
+            assertEquals(1, dos.getDiagnostics().getFailureCount(), dos.getDiagnostics().toString());
+            assertTrue(dos.getSpillCount() > 0);
+            assertEquals(classes.size(), new Dex(dos.toByteArray()).getTableOfContents().classDefs.size);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testWriteRange() throws IOException {
+        String filename = TestClasses.filenameOf(DexOutputStreamTest.class);
+        byte[] bytes    = TestClasses.bytesOf(DexOutputStreamTest.class);
+        byte[] expected = TestClasses.compile(Map.of(filename, bytes));
+
+        for (int offset : new int[] {0, 32}) {
+            byte[] padded = new byte[bytes.length + 64];
+            System.arraycopy(bytes, 0, padded, offset, bytes.length);
+
+            try (DexOutputStream dos = DexFactory.getDefault().newOutputStream()) {
+                dos.putNextClass(filename);
+                dos.write(padded, offset, bytes.length);
+                dos.closeClass();
+                assertArrayEquals(expected, dos.toByteArray());
+            }
+        }
+    }
+
+    @Test
+    public void testSpill() throws IOException {
+        Map<String, byte[]> classes = TestClasses.dxClasses(200);
+        Dex expected = new Dex(TestClasses.compile(classes));
+
+        Path directory = Files.createTempDirectory("proto4j-dx-test");
+        try {
+            try (DexOutputStream dos = DexFactory.getDefault().newOutputStream()) {
+                dos.setSpillDirectory(directory);
+                dos.setSpillThreshold(64 * 1024);
+                classes.forEach(dos::addClass);
+
+                assertTrue(dos.getSpillCount() > 1);
+                assertEquals(dos.getSpillCount(), directory.toFile().list().length);
+                assertTrue(DexDiff.compare(expected, new Dex(dos.toByteArray())).isEmpty());
+            }
+            // All temporary files are deleted on close
+            assertEquals(0, directory.toFile().list().length);
+        } finally {
+            Files.deleteIfExists(directory);
+        }
+    }
+
+    @Test
+    public void testFailedSpill() throws IOException {
+        Map<String, byte[]> classes = TestClasses.dxClasses(100);
+        Dex expected = new Dex(TestClasses.compile(classes));
+
+        Path directory = Files.createTempDirectory("proto4j-dx-test");
+        try (DexOutputStream dos = DexFactory.getDefault().newOutputStream()) {
+            dos.setSpillThreshold(64 * 1024);
+            dos.setSpillDirectory(directory.resolve("missing"));
+
+            int failures = 0;
+            for (Map.Entry<String, byte[]> entry : classes.entrySet()) {
+                try {
+                    dos.addClass(entry.getKey(), entry.getValue());
+                } catch (UncheckedIOException e) {
+                    // The classes are kept in memory until the next spill
+                    failures++;
+                    dos.setSpillDirectory(directory);
+                }
+            }
+            assertEquals(1, failures);
+            assertEquals(dos.getSpillCount(), directory.toFile().list().length);
+            assertTrue(DexDiff.compare(expected, new Dex(dos.toDexBytes())).isEmpty());
+        } finally {
+            for (File file : directory.toFile().listFiles()) {
+                Files.delete(file.toPath());
+            }
+            Files.delete(directory);
+        }
+    }
+
+    /**
+     * Creates a class with a static method <code>m()V</code> that pops from
+     * an empty stack.
+     */
+    private static byte[] unverifiableClass() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream      out   = new DataOutputStream(bytes);
+        out.writeInt(0xCAFEBABE);
+        out.writeShort(0);
+        out.writeShort(50);
+
+        out.writeShort(8);
+        out.writeByte(1);
+        out.writeUTF("Unverifiable");
+        out.writeByte(7);
+        out.writeShort(1);
+        out.writeByte(1);
+        out.writeUTF("java/lang/Object");
+        out.writeByte(7);
+        out.writeShort(3);
+        out.writeByte(1);
+        out.writeUTF("m");
+        out.writeByte(1);
+        out.writeUTF("()V");
+        out.writeByte(1);
+        out.writeUTF("Code");
+
+        out.writeShort(0x21);
+        out.writeShort(2);
+        out.writeShort(4);
+        out.writeShort(0);
+        out.writeShort(0);
+
+        out.writeShort(1);
+        out.writeShort(0x09);
+        out.writeShort(5);
+        out.writeShort(6);
+        out.writeShort(1);
+        out.writeShort(7);
+        out.writeInt(14);
+        out.writeShort(0);
+        out.writeShort(0);
+        out.writeInt(2);
+        out.writeByte(0x57); // pop
+        out.writeByte(0xB1); // return
+        out.writeShort(0);
+        out.writeShort(0);
+
+        out.writeShort(0);
+        return bytes.toByteArray();
+    }
+
+    @Test
+    public void testClassFailuresAreReported() throws IOException {
+        Map<String, byte[]> classes = TestClasses.dxClasses(10);
+        try (DexOutputStream dos = DexFactory.getDefault().newOutputStream()) {
+            dos.addClass("Broken.class", new byte[] {(byte) 0xCA, (byte) 0xFE});
+            dos.addClass("Unverifiable.class", unverifiableClass());
+            classes.forEach(dos::addClass);
+
+            List<Diagnostic> diagnostics = dos.getDiagnostics().getDiagnostics();
+            assertEquals(2, diagnostics.size(), diagnostics.toString());
+            assertEquals(Diagnostic.Phase.PARSE, diagnostics.get(0).getPhase());
+            assertTrue(diagnostics.get(0).getException() instanceof ParseException);
+            assertEquals(Diagnostic.Phase.TRANSLATE, diagnostics.get(1).getPhase());
+            assertTrue(diagnostics.get(1).getException() instanceof SimException);
+
+            assertEquals(classes.size(), new Dex(dos.toDexBytes()).getTableOfContents().classDefs.size);
+        }
+    }
+
+    @Test
+    public void testLibraryFailuresArePropagated() throws IOException {
+        // Simulates bugs in the parser and in the class model used by dx
+        ClassParser parser = new ClassParser(DxVersion.DX16) {
+            @Override
+            public DirectClassFile read(String filename, InputStream inputStream) throws IOException {
+                return read(filename, inputStream.readAllBytes());
+            }
+
+            @Override
+            public DirectClassFile read(String filename, byte[] content) {
+                if (filename.startsWith("Parse")) {
+                    throw new IllegalStateException("parser bug");
+                }
+                DirectClassFile classFile = new DirectClassFile(content, filename, false) {
+                    @Override
+                    public MethodList getMethods() {
+                        throw new NullPointerException("library bug");
+                    }
+                };
+                classFile.setAttributeFactory(StdAttributeFactory.THE_ONE);
+                return classFile;
+            }
+        };
+
+        Map<String, byte[]> classes = TestClasses.dxClasses(10);
+        DexFactory factory = DexFactory.getDefault();
+        try (DexOutputStream dos = factory.newOutputStream(factory.createDexFile(DxVersion.SDK26), parser)) {
+            Map.Entry<String, byte[]> first = classes.entrySet().iterator().next();
+
+            assertThrows(IllegalStateException.class, () -> dos.addClass("Parse.class", first.getValue()));
+            ExceptionWithContext e = assertThrows(ExceptionWithContext.class,
+                                                  () -> dos.addClass(first.getKey(), first.getValue()));
+            assertFalse(e instanceof ParseException || e instanceof SimException);
+            assertTrue(e.getCause() instanceof NullPointerException);
+            assertFalse(dos.getDiagnostics().hasFailures());
+        }
+    }
+}
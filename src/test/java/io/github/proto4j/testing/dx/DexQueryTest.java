@@ -0,0 +1,113 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Proto4j
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.proto4j.testing.dx; //@date 18.10.2026
+
+import com.android.dex.Dex;
+import com.android.dex.MethodId;
+import io.github.proto4j.dx.query.DexQuery;
+import io.github.proto4j.dx.query.DexReference;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DexQueryTest {
+
+    static class Target {
+        static int counter;
+
+        static void run() {}
+
+        static void run(int times) {}
+    }
+
+    static class Caller {
+        void call() {
+            Target.run();
+            Target.counter++;
+        }
+    }
+
+    private static final String TARGET = "L" + Target.class.getName().replace('.', '/') + ";";
+
+    private static DexQuery newQuery() throws IOException {
+        // 0: defines and uses Target, 1: no reference, 2: uses Target only
+        Dex first  = new Dex(TestClasses.compile(Map.of(
+                TestClasses.filenameOf(Target.class), TestClasses.bytesOf(Target.class),
+                TestClasses.filenameOf(Caller.class), TestClasses.bytesOf(Caller.class))));
+        Dex second = new Dex(TestClasses.compile(TestClasses.dxClasses(50)));
+        Dex third  = new Dex(TestClasses.compile(Map.of(
+                TestClasses.filenameOf(Caller.class), TestClasses.bytesOf(Caller.class))));
+        return DexQuery.of(List.of(first, second, third));
+    }
+
+    private static List<Integer> dexIndices(List<DexReference> references) {
+        return references.stream().map(DexReference::getDexIndex).collect(Collectors.toList());
+    }
+
+    @Test
+    public void testFindMethod() throws IOException {
+        List<DexReference> references = newQuery().findMethod(TARGET, "run");
+
+        // The overload run(int) is only declared in the first dex-file
+        assertEquals(List.of(0, 0, 2), dexIndices(references));
+        for (DexReference reference : references) {
+            assertEquals(DexReference.Kind.METHOD, reference.getKind());
+            MethodId methodId = reference.getDex().methodIds().get(reference.getIndex());
+            assertEquals("run", reference.getDex().strings().get(methodId.getNameIndex()));
+            assertEquals(TARGET, reference.getDex().typeNames().get(methodId.getDeclaringClassIndex()));
+        }
+    }
+
+    @Test
+    public void testFindFieldAndType() throws IOException {
+        DexQuery query = newQuery();
+
+        assertEquals(List.of(0, 2), dexIndices(query.findField(TARGET, "counter")));
+        assertEquals(List.of(0, 2), dexIndices(query.findField(null, "counter")));
+        assertEquals(List.of(0, 2), dexIndices(query.findType(TARGET)));
+        assertEquals(List.of(1), dexIndices(query.findType("Lcom/android/dex/Dex;")));
+    }
+
+    @Test
+    public void testMiss() throws IOException {
+        DexQuery query = newQuery();
+
+        assertTrue(query.findMethod(TARGET, "missing").isEmpty());
+        assertTrue(query.findMethod("Lno/such/Type;", "run").isEmpty());
+        assertTrue(query.findField(TARGET, "run").isEmpty());
+        assertTrue(query.findType("Lno/such/Type;").isEmpty());
+        assertTrue(query.findString("no such string").isEmpty());
+
+        Queue<DexReference> results = new ConcurrentLinkedQueue<>();
+        query.findMethod(null, "missing", results::add);
+        assertTrue(results.isEmpty());
+    }
+}
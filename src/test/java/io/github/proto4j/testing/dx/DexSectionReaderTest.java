@@ -0,0 +1,149 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Proto4j
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.proto4j.testing.dx; //@date 18.10.2026
+
+import com.android.dex.ClassData;
+import com.android.dex.ClassDef;
+import com.android.dex.Dex;
+import io.github.proto4j.dx.DexFactory;
+import io.github.proto4j.dx.file.DexInputStream;
+import io.github.proto4j.dx.file.DexSectionReader;
+import io.github.proto4j.dx.file.DexVisitor;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DexSectionReaderTest {
+
+    private static final class CountingVisitor implements DexVisitor {
+        final List<String> classes = new ArrayList<>();
+        int fields, methods, codeItems, instructions;
+
+        @Override
+        public boolean visitClass(DexSectionReader.ClassInfo classInfo) {
+            classes.add(classInfo.getDescriptor());
+            return true;
+        }
+
+        @Override
+        public void visitField(DexSectionReader.FieldInfo fieldInfo) {
+            fields++;
+        }
+
+        @Override
+        public boolean visitMethod(DexSectionReader.MethodInfo methodInfo) {
+            methods++;
+            return true;
+        }
+
+        @Override
+        public void visitCode(DexSectionReader.CodeInfo codeInfo) {
+            codeItems++;
+            instructions += codeInfo.getInstructionsSize();
+        }
+    }
+
+    @Test
+    public void testVisitMatchesDex() throws IOException {
+        byte[] data = TestClasses.compile(TestClasses.dxClasses(30));
+        Dex    dex  = new Dex(data);
+
+        List<String> classes = new ArrayList<>();
+        int fields = 0, methods = 0, codeItems = 0, instructions = 0;
+        for (ClassDef classDef : dex.classDefs()) {
+            classes.add(dex.typeNames().get(classDef.getTypeIndex()));
+            if (classDef.getClassDataOffset() == 0) {
+                continue;
+            }
+            ClassData classData = dex.readClassData(classDef);
+            fields += classData.allFields().length;
+            for (ClassData.Method method : classData.allMethods()) {
+                methods++;
+                if (method.getCodeOffset() != 0) {
+                    codeItems++;
+                    instructions += dex.readCode(method).getInstructions().length;
+                }
+            }
+        }
+
+        CountingVisitor visitor = new CountingVisitor();
+        new DexSectionReader(data).accept(visitor);
+        assertEquals(classes, visitor.classes);
+        assertEquals(fields, visitor.fields);
+        assertEquals(methods, visitor.methods);
+        assertEquals(codeItems, visitor.codeItems);
+        assertEquals(instructions, visitor.instructions);
+
+        // The pooled buffer of the input stream is larger than the file
+        CountingVisitor streamed = new CountingVisitor();
+        try (DexInputStream dis = DexFactory.getDefault().newInputStream()) {
+            dis.read(new ByteArrayInputStream(data), true);
+            dis.accept(streamed);
+        }
+        assertEquals(classes, streamed.classes);
+        assertEquals(instructions, streamed.instructions);
+    }
+
+    @Test
+    public void testTruncatedFile() throws IOException {
+        byte[] data = TestClasses.compile(TestClasses.dxClasses(30));
+
+        assertThrows(IOException.class, () -> new DexSectionReader(data, data.length - 1));
+        assertThrows(IOException.class, () -> new DexSectionReader(Arrays.copyOf(data, data.length / 2)));
+        assertThrows(IOException.class, () -> new DexSectionReader(new byte[16]));
+
+        // Trailing space after the stated file size must not be read
+        byte[] padded = Arrays.copyOf(data, data.length * 2);
+        try (DexInputStream dis = DexFactory.getDefault().newInputStream()) {
+            dis.read(new ByteArrayInputStream(padded, 0, data.length / 2), true);
+            assertThrows(IOException.class, () -> dis.accept(new CountingVisitor()));
+        }
+    }
+
+    @Test
+    public void testMalformedOffsets() throws IOException {
+        byte[] data = TestClasses.compile(TestClasses.dxClasses(30));
+        int classDefs = new Dex(data).getTableOfContents().classDefs.off;
+
+        // class data offset of the first class behind the end of the file
+        byte[] classData = data.clone();
+        ByteBuffer.wrap(classData).order(ByteOrder.LITTLE_ENDIAN).putInt(classDefs + 24, data.length + 8);
+        DexSectionReader reader = new DexSectionReader(classData);
+        assertThrows(IOException.class, () -> reader.accept(new CountingVisitor()));
+
+        // illegal type index
+        byte[] typeIndex = data.clone();
+        ByteBuffer.wrap(typeIndex).order(ByteOrder.LITTLE_ENDIAN).putInt(classDefs, -2);
+        DexSectionReader typeReader = new DexSectionReader(typeIndex);
+        assertThrows(IOException.class, () -> typeReader.accept(new CountingVisitor()));
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Proto4j
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.proto4j.testing.dx; //@date 18.10.2026
+
+import io.github.proto4j.dx.DexFactory;
+import io.github.proto4j.dx.file.DexInputStream;
+import io.github.proto4j.dx.file.DexVerifier;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DexVerifierTest {
+
+    @Test
+    public void testValidFile() throws IOException {
+        byte[] dex = TestClasses.compile(TestClasses.dxClasses(20));
+        DexVerifier.verify(dex);
+
+        // Trailing buffer space is ignored
+        DexVerifier.verify(Arrays.copyOf(dex, dex.length + 100), dex.length);
+    }
+
+    @Test
+    public void testCorruptedFile() throws IOException {
+        byte[] dex = TestClasses.compile(TestClasses.dxClasses(20));
+
+        byte[] modified = dex.clone();
+        modified[modified.length - 1] ^= 1;
+        assertThrows(IOException.class, () -> DexVerifier.verify(modified));
+
+        assertThrows(IOException.class, () -> DexVerifier.verify(dex, dex.length - 1));
+        assertThrows(IOException.class, () -> DexVerifier.verify(new byte[16]));
+    }
+
+    @Test
+    public void testVerifyOnRead() throws IOException {
+        byte[] dex = TestClasses.compile(TestClasses.dxClasses(20));
+        dex[dex.length / 2] ^= 1;
+
+        try (DexInputStream dis = DexFactory.getDefault().newInputStream()) {
+            dis.setVerify(true);
+            dis.read(new ByteArrayInputStream(dex), true);
+            assertThrows(IOException.class, dis::toDex);
+        }
+    }
+}
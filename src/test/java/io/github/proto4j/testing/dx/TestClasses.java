@@ -0,0 +1,115 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Proto4j
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.proto4j.testing.dx; //@date 18.10.2026
+
+import com.android.dx.dex.file.DexFile;
+import io.github.proto4j.dx.DexFactory;
+import io.github.proto4j.dx.file.DexOutputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Enumeration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Test inputs taken from the class path: the classes of the dx tool itself
+ * serve as a realistic corpus.
+ */
+final class TestClasses {
+
+    private TestClasses() {}
+
+    /**
+     * Reads the first classes of the dx tool in the order of their names.
+     *
+     * @param limit the maximum amount of classes
+     * @return the class data mapped from the class filename
+     */
+    static Map<String, byte[]> dxClasses(int limit) throws IOException {
+        Path jar;
+        try {
+            jar = Paths.get(DexFile.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        } catch (URISyntaxException e) {
+            throw new IOException(e);
+        }
+
+        Map<String, byte[]> names = new TreeMap<>();
+        try (ZipFile zipFile = new ZipFile(jar.toFile())) {
+            Enumeration<? extends ZipEntry> entries = zipFile.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                if (entry.getName().endsWith(".class") && !entry.getName().contains("-")) {
+                    names.put(entry.getName(), null);
+                }
+            }
+
+            Map<String, byte[]> classes = new TreeMap<>();
+            for (String name : names.keySet()) {
+                if (classes.size() == limit) {
+                    break;
+                }
+                try (InputStream inputStream = zipFile.getInputStream(zipFile.getEntry(name))) {
+                    classes.put(name, inputStream.readAllBytes());
+                }
+            }
+            return classes;
+        }
+    }
+
+    /**
+     * Reads the class file of the given (test) class.
+     */
+    static byte[] bytesOf(Class<?> type) throws IOException {
+        String name = type.getName().replace('.', '/') + ".class";
+        try (InputStream inputStream = type.getClassLoader().getResourceAsStream(name)) {
+            if (inputStream == null) {
+                throw new IOException("Class file not found: " + name);
+            }
+            return inputStream.readAllBytes();
+        }
+    }
+
+    /**
+     * @return the filename of the given class in a jar-file
+     */
+    static String filenameOf(Class<?> type) {
+        return type.getName().replace('.', '/') + ".class";
+    }
+
+    /**
+     * Translates the given classes into a single dex-file.
+     */
+    static byte[] compile(Map<String, byte[]> classes) throws IOException {
+        try (DexOutputStream dos = DexFactory.getDefault().newOutputStream()) {
+            classes.forEach(dos::addClass);
+            return dos.toByteArray();
+        }
+    }
+}
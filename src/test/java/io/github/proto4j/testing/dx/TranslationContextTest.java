@@ -0,0 +1,164 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Proto4j
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.proto4j.testing.dx; //@date 18.10.2026
+
+import com.android.dx.dex.DexOptions;
+import com.android.dx.dex.cf.CfOptions;
+import io.github.proto4j.dx.DexFactory;
+import io.github.proto4j.dx.DxVersion;
+import io.github.proto4j.dx.TranslationProfile;
+import io.github.proto4j.dx.file.BufferPool;
+import io.github.proto4j.dx.file.DexOutputStream;
+import io.github.proto4j.dx.file.TranslationContext;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TranslationContextTest {
+
+    @Test
+    public void testPoolReuse() {
+        TranslationContext.Pool pool = new TranslationContext.Pool(2);
+
+        TranslationContext first = pool.acquire();
+        first.release();
+        assertEquals(1, pool.getIdleCount());
+
+        assertSame(first, pool.acquire());
+        TranslationContext second = pool.acquire();
+        assertNotSame(first, second);
+        assertEquals(2, pool.getCreatedCount());
+        assertEquals(1, pool.getReuseCount());
+
+        // The pool keeps at most two idle contexts
+        TranslationContext third = pool.acquire();
+        first.release();
+        second.release();
+        third.release();
+        assertEquals(2, pool.getIdleCount());
+        assertEquals(3, pool.getCreatedCount());
+    }
+
+    @Test
+    public void testDoubleRelease() {
+        TranslationContext.Pool pool = new TranslationContext.Pool(4);
+
+        TranslationContext context = pool.acquire();
+        context.release();
+        context.release();
+        assertEquals(1, pool.getIdleCount());
+
+        // The context is handed out once only
+        assertSame(context, pool.acquire());
+        assertNotSame(context, pool.acquire());
+
+        // A reused context can be released again
+        context.release();
+        assertEquals(1, pool.getIdleCount());
+
+        // Contexts without a pool ignore the release
+        new TranslationContext().release();
+    }
+
+    @Test
+    public void testNotReusable() throws IOException {
+        DexFactory              factory = DexFactory.getDefault();
+        TranslationContext.Pool pool    = new TranslationContext.Pool(4);
+        Map.Entry<String, byte[]> entry = TestClasses.dxClasses(1).entrySet().iterator().next();
+
+        DexOutputStream plain = new DexOutputStream(factory.createDexFile(DxVersion.SDK26),
+                                                    factory.createClassParser(), BufferPool.getDefault(),
+                                                    pool.acquire(), new CfOptions());
+        plain.addClass(entry.getKey(), entry.getValue());
+        plain.close();
+        plain.close();
+        assertEquals(1, pool.getIdleCount());
+
+        Path optimizeList = Files.createTempFile("proto4j-optimize", ".txt");
+        try {
+            CfOptions options = TranslationProfile.RELEASE.createCfOptions();
+            options.optimizeListFile = optimizeList.toString();
+
+            DexOutputStream optimized = new DexOutputStream(factory.createDexFile(DxVersion.SDK26),
+                                                            factory.createClassParser(), BufferPool.getDefault(),
+                                                            pool.acquire(), new CfOptions());
+            optimized.addClass(entry.getKey(), entry.getValue(), options);
+            optimized.close();
+
+            // The context has loaded the method list and is dropped
+            assertEquals(0, pool.getIdleCount());
+            assertEquals(1, pool.getCreatedCount());
+            assertEquals(1, pool.getReuseCount());
+        } finally {
+            Files.delete(optimizeList);
+        }
+    }
+
+    @Test
+    public void testFactoryStreamsReuseContexts() throws IOException {
+        DexFactory              factory = DexFactory.getDefault();
+        TranslationContext.Pool pool    = factory.getTranslationContextPool();
+
+        factory.newOutputStream().close();
+        long created = pool.getCreatedCount();
+        long reused  = pool.getReuseCount();
+
+        for (int i = 0; i < 10; i++) {
+            factory.newOutputStream(DxVersion.SDK26, TranslationProfile.RELEASE).close();
+        }
+        assertEquals(created, pool.getCreatedCount());
+        assertEquals(reused + 10, pool.getReuseCount());
+    }
+
+    @Test
+    public void testSharedOptions() {
+        DexFactory factory = DexFactory.getDefault();
+
+        DexOptions shared = factory.getDexOptions(DxVersion.SDK26);
+        assertSame(shared, factory.getDexOptions(DxVersion.SDK26));
+        assertNotSame(shared, factory.getDexOptions(DxVersion.SDK13));
+        assertEquals(DxVersion.SDK26, shared.minSdkVersion);
+
+        // Dex-files created for an SDK version use private options
+        DexOptions first  = factory.createDexFile(DxVersion.SDK26).getDexOptions();
+        DexOptions second = factory.createDexFile(DxVersion.SDK26).getDexOptions();
+        assertNotSame(shared, first);
+        assertNotSame(first, second);
+        assertEquals(DxVersion.SDK26, first.minSdkVersion);
+
+        CfOptions debug = factory.getCfOptions(TranslationProfile.DEBUG);
+        assertSame(debug, factory.getCfOptions(TranslationProfile.DEBUG));
+        assertTrue(debug.localInfo);
+        assertFalse(debug.optimize);
+        assertTrue(factory.getCfOptions(TranslationProfile.RELEASE).optimize);
+        assertFalse(factory.getCfOptions(TranslationProfile.RELEASE).localInfo);
+        assertFalse(factory.getCfOptions(TranslationProfile.DEFAULT).optimize);
+        assertThrows(NullPointerException.class, () -> factory.getCfOptions(null));
+    }
+}